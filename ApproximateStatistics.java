@@ -0,0 +1,310 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Approximate shortest path statistics for graphs too large for a search from every vertex.
+ *
+ * The diameter is bracketed with the iFUB method: a double sweep finds a long path and a
+ * central vertex u on it, and vertices are then examined from the outermost level of the
+ * search from u inwards. Each level either raises the lower bound or lowers the upper bound,
+ * usually meeting after a handful of searches. Components are found with union-find and
+ * handled one at a time, skipping any too small to beat the current lower bound.
+ *
+ * The average distance and the distance distribution are estimated from searches out of
+ * uniformly sampled sources, as ratio estimates over the sampled pairs, each with a 95%
+ * confidence interval from the spread between sources.
+ *
+ * The graph is treated as undirected, which for the movie graphs changes nothing.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class ApproximateStatistics {
+
+    // the normal quantile for a two-sided 95% confidence interval
+    private static final double Z = 1.96;
+
+    private int diameterLowerBound;
+    private int diameterUpperBound;
+    private int searches;
+    private int samples;
+    private double averageDistance;
+    private double averageMargin;
+    private double[] distribution;
+    private double[] distributionMargin;
+
+    private ApproximateStatistics(){
+    }
+
+    /**
+     * Estimates the statistics of a graph
+     * @param graph the graph
+     * @param samples the number of sources to sample for the average distance
+     * @param maxSearches the most breadth first searches to spend on the diameter, counting
+     *        every search; components found with union-find cost none
+     * @param seed the seed for choosing sources
+     * @return the estimates
+     */
+    public static ApproximateStatistics estimate(CompactGraph graph, int samples, int maxSearches, long seed){
+        CompactGraph undirected = graph.symmetric();
+        ApproximateStatistics stats = new ApproximateStatistics();
+        stats.boundDiameter(undirected, maxSearches);
+        stats.sampleDistances(undirected, Math.min(samples, undirected.numVertices), new Random(seed));
+        return stats;
+    }
+
+    /**
+     * Brackets the diameter of every component with iFUB, making at most maxSearches searches
+     * in all. A component reached after the budget runs out is bounded by its size alone
+     */
+    private void boundDiameter(CompactGraph graph, int maxSearches){
+        BreadthFirstPaths bfs = new BreadthFirstPaths(graph.numVertices);
+        ConnectedComponents components = ConnectedComponents.weak(graph);
+        int lower = 0;
+        int upper = 0;
+        for (int c = 1; c <= components.count(); c++){
+            int size = components.size(c);
+            if (size - 1 <= lower){
+                continue; // a path in this component has at most size-1 edges
+            }
+            if (searches >= maxSearches){
+                upper = Math.max(upper, size - 1);
+                continue;
+            }
+            int[] bounds = ifub(graph, bfs, components.members(c)[0], size, lower, maxSearches);
+            lower = Math.max(lower, bounds[0]);
+            upper = Math.max(upper, bounds[1]);
+        }
+        diameterLowerBound = lower;
+        diameterUpperBound = Math.max(lower, upper);
+    }
+
+    /**
+     * Runs iFUB on the component containing start, stopping once the searches made reach
+     * maxSearches. Every search counts: the double sweep, the center and each fringe vertex
+     * @return the lower and upper bounds on the component's diameter
+     */
+    private int[] ifub(CompactGraph graph, BreadthFirstPaths bfs, int start, int size, int lower, int maxSearches){
+        // double sweep: the farthest vertex a from start, then the farthest vertex b from a.
+        // Every eccentricity e found also caps the diameter at 2e
+        bfs.search(graph, start);
+        searches++;
+        int a = bfs.reachedNode(bfs.reached() - 1);
+        lower = Math.max(lower, bfs.distance(a));
+        int upper = Math.min(size - 1, 2 * bfs.distance(a));
+        if (lower >= upper || searches >= maxSearches){
+            return new int[] {lower, upper};
+        }
+        bfs.search(graph, a);
+        searches++;
+        int b = bfs.reachedNode(bfs.reached() - 1);
+        int sweep = bfs.distance(b);
+        lower = Math.max(lower, sweep);
+        upper = Math.min(upper, 2 * sweep);
+        if (lower >= upper || searches >= maxSearches){
+            return new int[] {lower, upper};
+        }
+
+        // the middle of the a-b path is a good center
+        int center = b;
+        for (int steps = sweep / 2; steps > 0; steps--){
+            center = bfs.previous(center);
+        }
+        int reached = bfs.search(graph, center);
+        searches++;
+        int eccentricity = bfs.distance(bfs.reachedNode(reached - 1));
+        upper = Math.min(upper, 2 * eccentricity);
+        int[] fringe = new int[reached];
+        for (int i = 0; i < reached; i++){
+            fringe[i] = bfs.reachedNode(i);
+        }
+        int[] levelOf = new int[reached];
+        for (int i = 0; i < reached; i++){
+            levelOf[i] = bfs.distance(fringe[i]);
+        }
+
+        // walk the levels from the outside in; nodes were reached in order of distance
+        int end = reached;
+        for (int level = eccentricity; level > 0 && lower < upper && searches < maxSearches; level--){
+            int begin = end;
+            while (begin > 0 && levelOf[begin-1] == level){
+                begin--;
+            }
+            int i = begin;
+            for (; i < end && searches < maxSearches; i++){
+                bfs.search(graph, fringe[i]);
+                searches++;
+                lower = Math.max(lower, bfs.distance(bfs.reachedNode(bfs.reached() - 1)));
+            }
+            if (i < end){
+                break; // this level was not finished, so the upper bound stays where it was
+            }
+            // any pair farther apart than 2(level-1) would need a vertex at this level or beyond
+            upper = Math.min(upper, Math.max(lower, 2 * (level - 1)));
+            end = begin;
+        }
+        return new int[] {lower, upper};
+    }
+
+    /**
+     * Estimates the average distance and distance distribution from sampled sources
+     */
+    private void sampleDistances(CompactGraph graph, int k, Random random){
+        int n = graph.numVertices;
+        this.samples = k;
+        if (k == 0){
+            distribution = new double[0];
+            distributionMargin = new double[0];
+            return;
+        }
+        // choose k distinct sources by a partial shuffle
+        int[] vertices = new int[n];
+        for (int i = 0; i < n; i++){
+            vertices[i] = i + 1;
+        }
+        for (int i = 0; i < k; i++){
+            int j = i + random.nextInt(n - i);
+            int temp = vertices[i];
+            vertices[i] = vertices[j];
+            vertices[j] = temp;
+        }
+        int[] sources = Arrays.copyOf(vertices, k);
+
+        // per source: the number of other vertices reached at each distance
+        ThreadLocal<BreadthFirstPaths> workspace = ThreadLocal.withInitial(() -> new BreadthFirstPaths(n));
+        int[][] counts = new int[k][];
+        IntStream.range(0, k).parallel().forEach(s -> {
+            BreadthFirstPaths bfs = workspace.get();
+            int reached = bfs.search(graph, sources[s]);
+            int[] atDistance = new int[bfs.distance(bfs.reachedNode(reached - 1)) + 1];
+            for (int i = 1; i < reached; i++){
+                atDistance[bfs.distance(bfs.reachedNode(i))]++;
+            }
+            counts[s] = atDistance;
+        });
+
+        int maxDistance = 0;
+        for (int[] c : counts){
+            maxDistance = Math.max(maxDistance, c.length - 1);
+        }
+        double[] sums = new double[k];    // the sum of distances from each source
+        double[] pairs = new double[k];   // the number of vertices reachable from each source
+        for (int s = 0; s < k; s++){
+            for (int d = 1; d < counts[s].length; d++){
+                sums[s] += (double) d * counts[s][d];
+                pairs[s] += counts[s][d];
+            }
+        }
+        double[] ratioAndMargin = ratioEstimate(sums, pairs);
+        averageDistance = ratioAndMargin[0];
+        averageMargin = ratioAndMargin[1];
+
+        distribution = new double[maxDistance + 1];
+        distributionMargin = new double[maxDistance + 1];
+        double[] atD = new double[k];
+        for (int d = 1; d <= maxDistance; d++){
+            for (int s = 0; s < k; s++){
+                atD[s] = d < counts[s].length ? counts[s][d] : 0;
+            }
+            double[] estimate = ratioEstimate(atD, pairs);
+            distribution[d] = estimate[0];
+            distributionMargin[d] = estimate[1];
+        }
+    }
+
+    /**
+     * Estimates sum(y)/sum(x) from per-source samples, with the 95% margin of error from the
+     * linearized (delta method) variance of a ratio estimator
+     * @return the estimate and its margin of error
+     */
+    private static double[] ratioEstimate(double[] y, double[] x){
+        int k = y.length;
+        double sumY = 0;
+        double sumX = 0;
+        for (int i = 0; i < k; i++){
+            sumY += y[i];
+            sumX += x[i];
+        }
+        if (sumX == 0){
+            return new double[] {0, 0};
+        }
+        double ratio = sumY / sumX;
+        if (k < 2){
+            return new double[] {ratio, Double.POSITIVE_INFINITY};
+        }
+        double residuals = 0;
+        for (int i = 0; i < k; i++){
+            double r = y[i] - ratio * x[i];
+            residuals += r * r;
+        }
+        double meanX = sumX / k;
+        double standardError = Math.sqrt(residuals / (k - 1) / k) / meanX;
+        return new double[] {ratio, Z * standardError};
+    }
+
+    /**
+     * Returns the largest distance proven to occur in the graph
+     * @return a lower bound on the diameter
+     */
+    public int diameterLowerBound(){
+        return diameterLowerBound;
+    }
+
+    /**
+     * Returns a distance no pair of connected vertices can exceed
+     * @return an upper bound on the diameter; equal to the lower bound when the diameter is exact
+     */
+    public int diameterUpperBound(){
+        return diameterUpperBound;
+    }
+
+    /**
+     * Returns the number of breadth first searches used to bound the diameter
+     * @return the number of searches
+     */
+    public int diameterSearches(){
+        return searches;
+    }
+
+    /**
+     * Returns the number of sampled sources
+     * @return the number of sources
+     */
+    public int samples(){
+        return samples;
+    }
+
+    /**
+     * Returns the estimated average distance over connected pairs
+     * @return the estimate
+     */
+    public double averageDistance(){
+        return averageDistance;
+    }
+
+    /**
+     * Returns the half-width of the 95% confidence interval of the average distance
+     * @return the margin of error
+     */
+    public double averageDistanceMargin(){
+        return averageMargin;
+    }
+
+    /**
+     * Returns the estimated fraction of connected pairs at each distance
+     * @return an array whose entry d is the estimated fraction of pairs at distance d
+     */
+    public double[] distanceDistribution(){
+        return distribution.clone();
+    }
+
+    /**
+     * Returns the half-widths of the 95% confidence intervals of the distance distribution
+     * @return an array whose entry d is the margin of error of the fraction at distance d
+     */
+    public double[] distanceDistributionMargin(){
+        return distributionMargin.clone();
+    }
+}
@@ -0,0 +1,185 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Betweenness centrality with Brandes' algorithm: the betweenness of v is the sum over pairs
+ * (s, t) of the fraction of shortest s-t paths that pass through v, so vertices that bridge
+ * otherwise separate parts of the graph score highest.
+ *
+ * Each source costs one breadth first search counting shortest paths, followed by a pass in
+ * reverse order of distance that accumulates each vertex's dependency on that source.
+ * Sources run in parallel on the common fork-join pool; every worker thread adds into its
+ * own accumulator, so there is one per thread rather than one per task, and the
+ * accumulators are summed once at the end. For large graphs the scores can
+ * be estimated from a random sample of sources, scaled up to the whole graph.
+ *
+ * Edge weights are ignored; paths are counted in edges. Pairs are ordered, so on a symmetric
+ * graph every unordered pair is counted once from each end. Vertices are the integers 1...n.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class BetweennessCentrality {
+
+    /**
+     * Computes the exact betweenness of every vertex
+     * @param graph the graph
+     * @return the betweenness indexed by vertex-1
+     */
+    public static double[] exact(CompactGraph graph){
+        return accumulate(graph, IntStream.rangeClosed(1, graph.numVertices).toArray(), 1.0);
+    }
+
+    /**
+     * Estimates the betweenness of every vertex from the dependencies of sampled sources
+     * @param graph the graph
+     * @param samples the number of sources; all of them if at least the number of vertices
+     * @param seed the seed for choosing sources
+     * @return the estimated betweenness indexed by vertex-1
+     */
+    public static double[] sampled(CompactGraph graph, int samples, long seed){
+        int n = graph.numVertices;
+        if (samples >= n){
+            return exact(graph);
+        }
+        // choose the sources by a partial shuffle
+        int[] vertices = IntStream.rangeClosed(1, n).toArray();
+        Random random = new Random(seed);
+        for (int i = 0; i < samples; i++){
+            int j = i + random.nextInt(n - i);
+            int temp = vertices[i];
+            vertices[i] = vertices[j];
+            vertices[j] = temp;
+        }
+        return accumulate(graph, Arrays.copyOf(vertices, samples), (double) n / samples);
+    }
+
+    /**
+     * Sums the dependencies of the given sources, each worker thread into its own accumulator
+     */
+    private static double[] accumulate(CompactGraph graph, int[] sources, double scale){
+        int n = graph.numVertices;
+        List<Accumulator> accumulators = Collections.synchronizedList(new ArrayList<>());
+        ThreadLocal<Accumulator> local = ThreadLocal.withInitial(() -> {
+            Accumulator acc = new Accumulator(n);
+            accumulators.add(acc);
+            return acc;
+        });
+        IntStream.range(0, sources.length).parallel().forEach(i -> local.get().addSource(graph, sources[i]));
+        double[] centrality = new double[n];
+        for (Accumulator acc : accumulators){
+            for (int v = 0; v < n; v++){
+                centrality[v] += acc.centrality[v];
+            }
+        }
+        if (scale != 1.0){
+            for (int v = 0; v < n; v++){
+                centrality[v] *= scale;
+            }
+        }
+        return centrality;
+    }
+
+    /**
+     * One worker's search arrays and running betweenness totals
+     */
+    private static class Accumulator {
+        final double[] centrality;
+        final int[] distance;
+        final double[] paths; // the number of shortest paths from the source; doubles do not overflow
+        final double[] dependency;
+        final int[] order;    // vertices in the order they were reached
+
+        Accumulator(int n){
+            centrality = new double[n];
+            distance = new int[n];
+            paths = new double[n];
+            dependency = new double[n];
+            order = new int[n];
+            Arrays.fill(distance, GraphAlgorithms.INFINITY);
+        }
+
+        void addSource(CompactGraph graph, int source){
+            int[] offsets = graph.offsets;
+            int[] targets = graph.targets;
+            distance[source-1] = 0;
+            paths[source-1] = 1;
+            order[0] = source;
+            int reached = 1;
+            for (int head = 0; head < reached; head++){
+                int u = order[head];
+                for (int e = offsets[u-1]; e < offsets[u]; e++){
+                    int w = targets[e];
+                    if (distance[w-1] == GraphAlgorithms.INFINITY){
+                        distance[w-1] = distance[u-1] + 1;
+                        order[reached++] = w;
+                    }
+                    if (distance[w-1] == distance[u-1] + 1){
+                        paths[w-1] += paths[u-1];
+                    }
+                }
+            }
+            // the successors of v on shortest paths are its neighbors one step farther out
+            for (int i = reached - 1; i >= 0; i--){
+                int v = order[i];
+                double sum = 0;
+                for (int e = offsets[v-1]; e < offsets[v]; e++){
+                    int w = targets[e];
+                    if (distance[w-1] == distance[v-1] + 1){
+                        sum += (1 + dependency[w-1]) / paths[w-1];
+                    }
+                }
+                dependency[v-1] = paths[v-1] * sum;
+                if (v != source){
+                    centrality[v-1] += dependency[v-1];
+                }
+            }
+            // reset only what this search touched
+            for (int i = 0; i < reached; i++){
+                int v = order[i];
+                distance[v-1] = GraphAlgorithms.INFINITY;
+                paths[v-1] = 0;
+                dependency[v-1] = 0;
+            }
+        }
+    }
+
+    /**
+     * Times exact and sampled betweenness on a random graph and compares their top vertices.
+     * Usage: java graph.BetweennessCentrality [vertices] [average degree] [samples]
+     */
+    public static void main(String[] args){
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int samples = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        Random random = new Random(361);
+        Graph<Integer> g = new Graph<>();
+        for (int v = 1; v <= n; v++){
+            g.addVertex(v);
+        }
+        for (int v = 1; v <= n; v++){
+            for (int i = 0; i < degree / 2; i++){
+                int u = 1 + random.nextInt(n);
+                g.addEdge(v, u);
+                g.addEdge(u, v);
+            }
+        }
+        CompactGraph graph = new CompactGraph(g);
+
+        long start = System.nanoTime();
+        double[] exact = exact(graph);
+        long exactTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        double[] estimate = sampled(graph, samples, 1);
+        long sampledTime = System.nanoTime() - start;
+
+        System.out.printf("Exact %.0f ms, %d sampled sources %.0f ms%n", exactTime / 1e6, samples, sampledTime / 1e6);
+        System.out.println("Exact top 10:   " + Arrays.toString(GraphAlgorithms.topK(exact, 10)));
+        System.out.println("Sampled top 10: " + Arrays.toString(GraphAlgorithms.topK(estimate, 10)));
+    }
+}
@@ -0,0 +1,115 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Floyd-Warshall all pairs shortest paths over one flat int array, processed in square tiles
+ * so that each step works on three tiles that fit in cache. For each diagonal tile k the
+ * standard blocked order is followed:
+ * <ol>
+ * <li> the diagonal tile (k, k) is closed over its own vertices</li>
+ * <li> the tiles in row k and column k are updated through the diagonal tile</li>
+ * <li> every other tile (i, j) is updated through tiles (i, k) and (k, j)</li>
+ * </ol>
+ * The tiles within phases 2 and 3 are independent and run on the common fork-join pool.
+ * The result is the same matrix the triple loop produces.
+ *
+ * Vertices are the integers 1...n; the distance from u to v is at index (u-1)*n + (v-1).
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class BlockedFloydWarshall {
+
+    // 64 x 64 ints is 16 KB per tile, so the three tiles of an update fit in L1/L2
+    static final int TILE = 64;
+
+    /**
+     * Computes the distance between every pair of vertices
+     * @param graph a graph whose vertices are numbered 1...n
+     * @param useWeights true to use edge weights as lengths, false to count edges
+     * @return the flattened n x n distance matrix, with INFINITY for unreachable pairs
+     */
+    public static int[] distances(GraphIfc<Integer> graph, boolean useWeights){
+        return distances(graph, useWeights, TILE);
+    }
+
+    /**
+     * Computes the distance between every pair of vertices with the given tile size
+     * @param graph a graph whose vertices are numbered 1...n
+     * @param useWeights true to use edge weights as lengths, false to count edges
+     * @param tile the side length of a tile
+     * @return the flattened n x n distance matrix, with INFINITY for unreachable pairs
+     * @throws IllegalArgumentException if the matrix does not fit in one array
+     */
+    public static int[] distances(GraphIfc<Integer> graph, boolean useWeights, int tile){
+        int n = graph.numVertices();
+        if ((long) n * n > Integer.MAX_VALUE - 8){
+            throw new IllegalArgumentException("too many vertices for a dense distance matrix: " + n);
+        }
+        int[] d = new int[n * n];
+        Arrays.fill(d, GraphAlgorithms.INFINITY);
+        // seed from the adjacency lists instead of probing every pair with edgeExists
+        for (int u = 1; u <= n; u++){
+            d[(u-1) * n + (u-1)] = 0;
+            List<Integer> neighbors = graph.getNeighbors(u);
+            int[] weights = graph.getWeights(u);
+            for (int i = 0; i < neighbors.size(); i++){
+                int index = (u-1) * n + neighbors.get(i) - 1;
+                d[index] = Math.min(d[index], useWeights ? weights[i] : 1);
+            }
+        }
+
+        int tiles = (n + tile - 1) / tile;
+        for (int k = 0; k < tiles; k++){
+            final int kb = k;
+            update(d, n, tile, kb, kb, kb);
+            IntStream.range(0, 2 * tiles).parallel().forEach(t -> {
+                int other = t >> 1;
+                if (other != kb){
+                    if ((t & 1) == 0){
+                        update(d, n, tile, kb, other, kb); // row kb
+                    }
+                    else{
+                        update(d, n, tile, other, kb, kb); // column kb
+                    }
+                }
+            });
+            IntStream.range(0, tiles * tiles).parallel().forEach(t -> {
+                int i = t / tiles;
+                int j = t % tiles;
+                if (i != kb && j != kb){
+                    update(d, n, tile, i, j, kb);
+                }
+            });
+        }
+        return d;
+    }
+
+    /**
+     * Relaxes tile (bi, bj) through the vertices of tile bk
+     */
+    private static void update(int[] d, int n, int tile, int bi, int bj, int bk){
+        int iEnd = Math.min(n, (bi + 1) * tile);
+        int jStart = bj * tile;
+        int jEnd = Math.min(n, (bj + 1) * tile);
+        int kEnd = Math.min(n, (bk + 1) * tile);
+        for (int k = bk * tile; k < kEnd; k++){
+            int kRow = k * n;
+            for (int i = bi * tile; i < iEnd; i++){
+                int iRow = i * n;
+                int dik = d[iRow + k];
+                if (dik == GraphAlgorithms.INFINITY){
+                    continue;
+                }
+                for (int j = jStart; j < jEnd; j++){
+                    int through = dik + d[kRow + j];
+                    if (through < d[iRow + j]){
+                        d[iRow + j] = through;
+                    }
+                }
+            }
+        }
+    }
+}
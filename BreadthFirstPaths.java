@@ -0,0 +1,176 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single source shortest paths for graphs whose edges all have weight 1. A breadth first
+ * search settles every vertex in the order it is discovered, so it finds the same paths as
+ * Dijkstra's algorithm in linear time with no priority queue.
+ *
+ * The queue, distance and previous arrays are kept between searches and only the entries
+ * touched by the last search are reset, so a search costs time proportional to the part of
+ * the graph it reaches. Vertices are the integers 1...n. An instance is not thread safe.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class BreadthFirstPaths {
+
+    private int[] queue;    // vertices in the order they were reached
+    private int[] distance; // indexed by vertex-1, INFINITY if unreached
+    private int[] previous; // indexed by vertex-1, 0 if unreached or the source
+    private int reached;
+
+    /**
+     * Creates a search workspace for graphs of up to the given number of vertices; it grows
+     * if a larger graph is searched
+     * @param capacity the expected number of vertices
+     */
+    public BreadthFirstPaths(int capacity){
+        queue = new int[capacity];
+        distance = new int[capacity];
+        previous = new int[capacity];
+        Arrays.fill(distance, GraphAlgorithms.INFINITY);
+    }
+
+    /**
+     * Searches a graph from the source through its neighbor lists
+     * @param graph a graph whose vertices are numbered 1...n
+     * @param source the node to search from
+     * @return the number of nodes reached, including the source
+     */
+    public int search(GraphIfc<Integer> graph, int source){
+        start(graph.numVertices(), source);
+        int head = 0;
+        while (head < reached){
+            int u = queue[head++];
+            List<Integer> neighbors = graph.getNeighbors(u);
+            for (int i = 0; i < neighbors.size(); i++){
+                visit(u, neighbors.get(i));
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Searches a compact graph from the source through its adjacency arrays
+     * @param graph the compact graph
+     * @param source the node to search from
+     * @return the number of nodes reached, including the source
+     */
+    public int search(CompactGraph graph, int source){
+        start(graph.numVertices, source);
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int head = 0;
+        while (head < reached){
+            int u = queue[head++];
+            for (int e = offsets[u-1]; e < offsets[u]; e++){
+                visit(u, targets[e]);
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Searches a compressed graph from the source, streaming neighbor lists through one cursor
+     * @param graph the compressed graph
+     * @param source the node to search from
+     * @return the number of nodes reached, including the source
+     */
+    public int search(CompressedGraph graph, int source){
+        start(graph.numVertices(), source);
+        CompressedGraph.NeighborCursor cursor = graph.cursor();
+        int head = 0;
+        while (head < reached){
+            int u = queue[head++];
+            cursor.reset(u);
+            while (cursor.hasNext()){
+                visit(u, cursor.next());
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Returns the number of edges on the shortest path to v from the last source
+     * @param v a node in the graph
+     * @return the distance, or INFINITY if v was not reached
+     */
+    public int distance(int v){
+        return distance[v-1];
+    }
+
+    /**
+     * Returns the node before v on the shortest path from the last source
+     * @param v a node in the graph
+     * @return the previous node, or 0 if v is the source or was not reached
+     */
+    public int previous(int v){
+        return previous[v-1];
+    }
+
+    /**
+     * Returns the number of nodes reached by the last search
+     * @return the number of nodes reached, including the source
+     */
+    public int reached(){
+        return reached;
+    }
+
+    /**
+     * Returns the i-th node reached by the last search; nodes are reached in
+     * nondecreasing order of distance
+     * @param i an index less than reached()
+     * @return the node
+     */
+    public int reachedNode(int i){
+        return queue[i];
+    }
+
+    /**
+     * Copies out the distances of the last search in the form breadthFirstSearch returns
+     * @param n the number of nodes in the graph
+     * @return the distance to each node, indexed by node-1, or INFINITY if unreachable
+     */
+    public int[] distances(int n){
+        return Arrays.copyOf(distance, n);
+    }
+
+    /**
+     * Copies out the previous nodes of the last search in the form dijkstrasAlgorithm returns
+     * @param n the number of nodes in the graph
+     * @return the previous node of each node, indexed by node-1
+     */
+    public int[] previousNodes(int n){
+        return Arrays.copyOf(previous, n);
+    }
+
+    private void start(int n, int source){
+        if (n > distance.length){
+            int capacity = Math.max(n, 2 * distance.length);
+            queue = new int[capacity];
+            distance = new int[capacity];
+            previous = new int[capacity];
+            Arrays.fill(distance, GraphAlgorithms.INFINITY);
+        }
+        else{
+            // only the nodes reached last time need to be reset
+            for (int i = 0; i < reached; i++){
+                distance[queue[i]-1] = GraphAlgorithms.INFINITY;
+                previous[queue[i]-1] = 0;
+            }
+        }
+        distance[source-1] = 0;
+        queue[0] = source;
+        reached = 1;
+    }
+
+    private void visit(int u, int v){
+        if (distance[v-1] == GraphAlgorithms.INFINITY){
+            distance[v-1] = distance[u-1] + 1;
+            previous[v-1] = u;
+            queue[reached++] = v;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * A monotone indexed priority queue for small integer priorities, as used by Dial's algorithm.
+ * An array of C+1 buckets is used as a circular window over the priorities from the current
+ * minimum to C above it, each bucket a doubly linked list of the elements with one priority.
+ * Pushing or changing a priority links the element into its bucket in constant time, and
+ * popping scans forward from the last minimum to the next non-empty bucket, so a whole
+ * shortest path search costs time linear in the edges plus the longest distance found.
+ *
+ * The queue is monotone: no priority may be pushed or changed to less than the current top
+ * priority, which holds for Dijkstra's algorithm because every tentative distance is at least
+ * the distance of the node last settled. When edge weights are at most C, every finite
+ * tentative distance also lies within the window. Priorities beyond the window, such as the
+ * initial infinite distances, wait in an overflow list, which is only scanned when the window
+ * reaches the smallest of them.
+ *
+ * Elements and priorities must be non-negative, and no operation allocates once the arrays
+ * are large enough.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class BucketQueue implements IndexedPriorityQueue {
+
+	private static final int NONE = -1;
+
+	private final int[] head;  // the first element of each bucket, or NONE
+	private int overflow = NONE; // the first element beyond the window, or NONE
+	private int overflowMin = Integer.MAX_VALUE; // the smallest priority in the overflow list
+
+	private int[] priority; // indexed by element
+	private int[] next;     // indexed by element; the next element in its list, or NONE
+	private int[] prev;     // indexed by element; the previous element in its list, or NONE
+	private int[] bucket;   // indexed by element; its bucket, the overflow list, or NONE if absent
+
+	private int cursor; // the smallest priority the window covers, no larger than any in the queue
+	private int size;
+	private int inWindow; // the number of elements in buckets rather than the overflow list
+
+	/**
+	 *  Constructs an empty bucket queue for the elements 0 to capacity-1
+	 *  @param maxSpread the largest amount C by which a priority in the queue may exceed the
+	 *  top priority without being sent to the overflow list, such as the largest edge weight
+	 *  @param capacity one more than the largest element expected
+	 */
+	public BucketQueue(int maxSpread, int capacity) {
+		if(maxSpread < 0 || maxSpread == Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("the spread of priorities must be between 0 and " + (Integer.MAX_VALUE - 1));
+		}
+		head = new int[maxSpread + 1];
+		Arrays.fill(head, NONE);
+		capacity = Math.max(1, capacity);
+		priority = new int[capacity];
+		next = new int[capacity];
+		prev = new int[capacity];
+		bucket = new int[capacity];
+		Arrays.fill(bucket, NONE);
+	}
+
+	@Override
+	public void push(int newpriority, int element) {
+		assert(!isPresent(element));
+		assert(size == 0 || newpriority >= cursor);
+		if(element >= bucket.length) {
+			int old = bucket.length;
+			int length = Math.max(element + 1, 2 * old);
+			priority = Arrays.copyOf(priority, length);
+			next = Arrays.copyOf(next, length);
+			prev = Arrays.copyOf(prev, length);
+			bucket = Arrays.copyOf(bucket, length);
+			Arrays.fill(bucket, old, length, NONE);
+		}
+		if(size == 0) {
+			// an empty queue may restart from a lower priority
+			cursor = Math.min(cursor, newpriority);
+		}
+		size++;
+		priority[element] = newpriority;
+		insert(element);
+	}
+
+	@Override
+	public void pop() {
+		if(size == 0) {
+			throw new AssertionError("heap is empty");
+		}
+		advance();
+		int element = head[cursor % head.length];
+		unlink(element);
+		bucket[element] = NONE;
+		size--;
+	}
+
+	@Override
+	public int topPriority() {
+		assert(size > 0);
+		advance();
+		return cursor;
+	}
+
+	@Override
+	public int topElement() {
+		assert(size > 0);
+		advance();
+		return head[cursor % head.length];
+	}
+
+	@Override
+	public void changePriority(int newpriority, int element) {
+		assert(isPresent(element));
+		assert(size == 0 || newpriority >= cursor);
+		unlink(element);
+		priority[element] = newpriority;
+		insert(element);
+	}
+
+	@Override
+	public int getPriority(int element) {
+		assert(isPresent(element));
+		return priority[element];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean isPresent(int element) {
+		return element >= 0 && element < bucket.length && bucket[element] != NONE;
+	}
+
+	@Override
+	public void clear() {
+		for(int list = 0; list <= head.length; list++) {
+			int first = list == head.length ? overflow : head[list];
+			for(int element = first; element != NONE; element = next[element]) {
+				bucket[element] = NONE;
+			}
+			if(list < head.length) {
+				head[list] = NONE;
+			}
+		}
+		overflow = NONE;
+		overflowMin = Integer.MAX_VALUE;
+		cursor = 0;
+		size = 0;
+		inWindow = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Moves the cursor to the smallest priority in the queue, which must be non-empty, pulling
+	 * overflow elements into the window when it reaches them
+	 */
+	private void advance() {
+		while(head[cursor % head.length] == NONE) {
+			if(inWindow == 0) {
+				cursor = overflowMin;
+				pullOverflow();
+			}
+			else if(++cursor == overflowMin) {
+				pullOverflow();
+			}
+		}
+	}
+
+	/**
+	 * Moves every overflow element whose priority now falls within the window into its bucket
+	 */
+	private void pullOverflow() {
+		int element = overflow;
+		overflow = NONE;
+		overflowMin = Integer.MAX_VALUE;
+		while(element != NONE) {
+			int following = next[element];
+			insert(element);
+			element = following;
+		}
+	}
+
+	/**
+	 * Links an element into the bucket for its priority, or the overflow list if it lies
+	 * beyond the window
+	 */
+	private void insert(int element) {
+		int p = priority[element];
+		int list;
+		if(p - cursor < head.length) {
+			list = p % head.length;
+			inWindow++;
+		}
+		else {
+			list = head.length;
+			overflowMin = Math.min(overflowMin, p);
+		}
+		int first = list == head.length ? overflow : head[list];
+		next[element] = first;
+		prev[element] = NONE;
+		if(first != NONE) {
+			prev[first] = element;
+		}
+		if(list == head.length) {
+			overflow = element;
+		}
+		else {
+			head[list] = element;
+		}
+		bucket[element] = list;
+	}
+
+	/**
+	 * Removes an element from the list it is in. Unless the overflow list empties, its smallest
+	 * priority is left as it is, a lower bound that is at worst reached early
+	 */
+	private void unlink(int element) {
+		int list = bucket[element];
+		if(prev[element] != NONE) {
+			next[prev[element]] = next[element];
+		}
+		else if(list == head.length) {
+			overflow = next[element];
+		}
+		else {
+			head[list] = next[element];
+		}
+		if(next[element] != NONE) {
+			prev[next[element]] = prev[element];
+		}
+		if(list != head.length) {
+			inWindow--;
+		}
+		else if(overflow == NONE) {
+			overflowMin = Integer.MAX_VALUE;
+		}
+	}
+}
@@ -0,0 +1,402 @@
+package graph;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * A division of a graph's vertices into communities, groups of vertices with many more edges
+ * among themselves than to the rest of the graph. Edge directions and weights are ignored.
+ *
+ * Two methods are offered. Label propagation is the fast one: every vertex starts in its own
+ * community and repeatedly adopts the most common community among its neighbors, with the
+ * vertices updated in parallel on the common fork-join pool until no vertex changes. Louvain is
+ * the thorough one: vertices are moved one at a time to whichever neighboring community raises
+ * the modularity most, then every community is collapsed into a single vertex and the process
+ * repeats on the smaller graph until nothing moves.
+ *
+ * Vertices are the integers 1...n and communities are numbered 1...count() in order of their
+ * smallest vertex.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class Communities {
+
+    // the most passes over the vertices within one Louvain level
+    private static final int MAX_PASSES = 100;
+
+    private final int[] community; // indexed by vertex-1
+    private final int[] sizes;     // indexed by community-1
+    private final double modularity;
+
+    /**
+     * Renumbers raw labels in order of smallest vertex and measures the result
+     * @param graph the undirected graph the labels divide
+     * @param label any labeling of the vertices, indexed by vertex-1, with values from 1 to n
+     */
+    private Communities(CompactGraph graph, int[] label){
+        int n = label.length;
+        community = new int[n];
+        int[] renamed = new int[n + 1];
+        int count = 0;
+        for (int v = 0; v < n; v++){
+            if (renamed[label[v]] == 0){
+                renamed[label[v]] = ++count;
+            }
+            community[v] = renamed[label[v]];
+        }
+        sizes = new int[count];
+        for (int c : community){
+            sizes[c-1]++;
+        }
+        modularity = modularity(graph, community, count);
+    }
+
+    /**
+     * Finds communities by parallel label propagation
+     * @param graph the graph
+     * @param maxRounds the most rounds of updates to run
+     * @param seed the seed for the order the vertices are updated in
+     * @return the communities
+     */
+    public static Communities labelPropagation(CompactGraph graph, int maxRounds, long seed){
+        CompactGraph undirected = graph.symmetric();
+        int n = undirected.numVertices;
+        int[] label = IntStream.rangeClosed(1, n).toArray();
+        // a random order keeps one region's label from sweeping the whole graph in one round
+        int[] order = IntStream.rangeClosed(1, n).toArray();
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--){
+            int j = random.nextInt(i + 1);
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+        }
+        // per worker: a count for each label and the labels counted so far
+        ThreadLocal<int[][]> scratch = ThreadLocal.withInitial(() -> new int[][] {new int[n + 1], new int[n]});
+        for (int round = 0; round < maxRounds; round++){
+            // each vertex writes only its own label, so concurrent updates only ever read a
+            // neighbor's label slightly early or late, as in sequential asynchronous propagation
+            int changed = IntStream.range(0, n).parallel()
+                    .map(i -> adoptMostCommon(undirected, label, order[i], scratch.get()))
+                    .sum();
+            if (changed == 0){
+                break;
+            }
+        }
+        return new Communities(undirected, label);
+    }
+
+    /**
+     * Moves v to the most common label among its neighbors, keeping its own label on a tie
+     * and otherwise preferring the smallest
+     * @return 1 if the label of v changed, 0 otherwise
+     */
+    private static int adoptMostCommon(CompactGraph graph, int[] label, int v, int[][] scratch){
+        int[] count = scratch[0];
+        int[] seen = scratch[1];
+        int distinct = 0;
+        for (int e = graph.offsets[v-1]; e < graph.offsets[v]; e++){
+            int w = graph.targets[e];
+            if (w != v){
+                int l = label[w-1];
+                if (count[l]++ == 0){
+                    seen[distinct++] = l;
+                }
+            }
+        }
+        int current = label[v-1];
+        int best = current;
+        int bestCount = count[current];
+        for (int i = 0; i < distinct; i++){
+            int l = seen[i];
+            if (count[l] > bestCount || (count[l] == bestCount && best != current && l < best)){
+                best = l;
+                bestCount = count[l];
+            }
+            count[l] = 0;
+        }
+        if (best == current){
+            return 0;
+        }
+        label[v-1] = best;
+        return 1;
+    }
+
+    /**
+     * Finds communities with the Louvain method
+     * @param graph the graph
+     * @return the communities
+     */
+    public static Communities louvain(CompactGraph graph){
+        CompactGraph undirected = graph.symmetric();
+        int n = undirected.numVertices;
+        // the graph of the current level, with 0-based nodes and weights that grow as communities merge
+        int size = n;
+        int[] offsets = undirected.offsets.clone();
+        int[] targets = new int[undirected.targets.length];
+        double[] weights = new double[targets.length];
+        for (int e = 0; e < targets.length; e++){
+            targets[e] = undirected.targets[e] - 1;
+            weights[e] = 1;
+        }
+        int[] node = new int[n]; // indexed by vertex-1; the vertex's node in the current level
+        for (int v = 0; v < n; v++){
+            node[v] = v;
+        }
+
+        while (true){
+            int[] level = moveNodes(size, offsets, targets, weights);
+            int count = 0;
+            for (int c : level){
+                count = Math.max(count, c + 1);
+            }
+            if (count == size){
+                break; // no node moved, so the communities are final
+            }
+            for (int v = 0; v < n; v++){
+                node[v] = level[node[v]];
+            }
+
+            // collapse each community into one node; the edges inside it become a self loop
+            int[] first = new int[count + 1];
+            for (int c : level){
+                first[c + 1]++;
+            }
+            for (int c = 0; c < count; c++){
+                first[c + 1] += first[c];
+            }
+            int[] members = new int[size];
+            int[] fill = first.clone();
+            for (int i = 0; i < size; i++){
+                members[fill[level[i]]++] = i;
+            }
+            int[] newOffsets = new int[count + 1];
+            int[] newTargets = new int[targets.length];
+            double[] newWeights = new double[targets.length];
+            double[] link = new double[count];
+            int[] touched = new int[count];
+            for (int c = 0; c < count; c++){
+                int distinct = 0;
+                for (int m = first[c]; m < first[c + 1]; m++){
+                    int i = members[m];
+                    for (int e = offsets[i]; e < offsets[i + 1]; e++){
+                        int d = level[targets[e]];
+                        if (link[d] == 0){
+                            touched[distinct++] = d;
+                        }
+                        link[d] += weights[e];
+                    }
+                }
+                int position = newOffsets[c];
+                for (int t = 0; t < distinct; t++){
+                    newTargets[position] = touched[t];
+                    newWeights[position++] = link[touched[t]];
+                    link[touched[t]] = 0;
+                }
+                newOffsets[c + 1] = position;
+            }
+            size = count;
+            offsets = newOffsets;
+            targets = newTargets;
+            weights = newWeights;
+        }
+
+        int[] label = new int[n];
+        for (int v = 0; v < n; v++){
+            label[v] = node[v] + 1;
+        }
+        return new Communities(undirected, label);
+    }
+
+    /**
+     * The local moving phase of Louvain on one level: each node in turn joins the neighboring
+     * community that gains the most modularity, until a whole pass moves nothing
+     * @return the community of each node, numbered from 0 in order of first node
+     */
+    private static int[] moveNodes(int size, int[] offsets, int[] targets, double[] weights){
+        double[] strength = new double[size]; // the weight at each node, self loops included
+        double total = 0;                      // twice the weight of all edges
+        for (int i = 0; i < size; i++){
+            for (int e = offsets[i]; e < offsets[i + 1]; e++){
+                strength[i] += weights[e];
+            }
+            total += strength[i];
+        }
+        int[] community = new int[size];
+        double[] communityStrength = strength.clone();
+        for (int i = 0; i < size; i++){
+            community[i] = i;
+        }
+        if (total == 0){
+            return community;
+        }
+
+        double[] link = new double[size];  // the weight from the current node to each community
+        int[] touched = new int[size];
+        boolean[] listed = new boolean[size];
+        for (int pass = 0; pass < MAX_PASSES; pass++){
+            int moves = 0;
+            for (int i = 0; i < size; i++){
+                int distinct = 0;
+                for (int e = offsets[i]; e < offsets[i + 1]; e++){
+                    int j = targets[e];
+                    if (j != i){
+                        int c = community[j];
+                        if (!listed[c]){
+                            listed[c] = true;
+                            touched[distinct++] = c;
+                        }
+                        link[c] += weights[e];
+                    }
+                }
+                int own = community[i];
+                communityStrength[own] -= strength[i];
+                // the modularity gain of joining c, up to a factor common to every c
+                int best = own;
+                double bestGain = link[own] - communityStrength[own] * strength[i] / total;
+                for (int t = 0; t < distinct; t++){
+                    int c = touched[t];
+                    double gain = link[c] - communityStrength[c] * strength[i] / total;
+                    if (gain > bestGain + 1e-12){
+                        best = c;
+                        bestGain = gain;
+                    }
+                    link[c] = 0;
+                    listed[c] = false;
+                }
+                link[own] = 0;
+                communityStrength[best] += strength[i];
+                if (best != own){
+                    community[i] = best;
+                    moves++;
+                }
+            }
+            if (moves == 0){
+                break;
+            }
+        }
+
+        int[] renamed = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++){
+            if (renamed[community[i]] == 0){
+                renamed[community[i]] = ++count;
+            }
+            community[i] = renamed[community[i]] - 1;
+        }
+        return community;
+    }
+
+    /**
+     * Computes the modularity of a division: the fraction of edge ends inside communities,
+     * less the fraction expected if the edges were placed at random with the same degrees
+     */
+    private static double modularity(CompactGraph graph, int[] community, int count){
+        double total = graph.targets.length;
+        if (total == 0){
+            return 0;
+        }
+        double[] inside = new double[count];
+        double[] degree = new double[count];
+        for (int v = 1; v <= graph.numVertices; v++){
+            int c = community[v-1] - 1;
+            degree[c] += graph.offsets[v] - graph.offsets[v-1];
+            for (int e = graph.offsets[v-1]; e < graph.offsets[v]; e++){
+                if (community[graph.targets[e]-1] - 1 == c){
+                    inside[c]++;
+                }
+            }
+        }
+        double q = 0;
+        for (int c = 0; c < count; c++){
+            q += inside[c] / total - (degree[c] / total) * (degree[c] / total);
+        }
+        return q;
+    }
+
+    /**
+     * Returns the number of communities
+     * @return the number of communities
+     */
+    public int count(){
+        return sizes.length;
+    }
+
+    /**
+     * Returns the community a vertex belongs to
+     * @param v a vertex in the graph
+     * @return the community id, from 1 to count()
+     */
+    public int communityOf(int v){
+        return community[v-1];
+    }
+
+    /**
+     * Returns the number of vertices in a community
+     * @param c a community id
+     * @return the size of the community
+     */
+    public int size(int c){
+        return sizes[c-1];
+    }
+
+    /**
+     * Returns the vertices of a community
+     * @param c a community id
+     * @return the vertices of the community in ascending order
+     */
+    public int[] members(int c){
+        int[] members = new int[sizes[c-1]];
+        int position = 0;
+        for (int v = 1; v <= community.length; v++){
+            if (community[v-1] == c){
+                members[position++] = v;
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Returns the modularity of this division of the graph
+     * @return the modularity, between -1/2 and 1; higher means more clearly separated communities
+     */
+    public double modularity(){
+        return modularity;
+    }
+
+    /**
+     * Times label propagation and Louvain on a random graph with planted communities.
+     * Usage: java graph.Communities [vertices] [community size]
+     */
+    public static void main(String[] args){
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int groupSize = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        Random random = new Random(361);
+        Graph<Integer> g = new Graph<>();
+        for (int v = 1; v <= n; v++){
+            g.addVertex(v);
+        }
+        for (int v = 1; v <= n; v++){
+            for (int i = 0; i < 8; i++){
+                // most edges stay inside the vertex's planted group
+                int u = i < 7
+                        ? 1 + Math.min(n - 1, (v - 1) / groupSize * groupSize + random.nextInt(groupSize))
+                        : 1 + random.nextInt(n);
+                g.addEdge(v, u);
+                g.addEdge(u, v);
+            }
+        }
+        CompactGraph graph = new CompactGraph(g);
+
+        long start = System.nanoTime();
+        Communities propagated = labelPropagation(graph, 50, 1);
+        long propagationTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        Communities louvain = louvain(graph);
+        long louvainTime = System.nanoTime() - start;
+        System.out.printf("Label propagation: %d communities, modularity %.4f, %.0f ms%n",
+                propagated.count(), propagated.modularity(), propagationTime / 1e6);
+        System.out.printf("Louvain: %d communities, modularity %.4f, %.0f ms%n",
+                louvain.count(), louvain.modularity(), louvainTime / 1e6);
+    }
+}
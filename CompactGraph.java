@@ -0,0 +1,371 @@
+package graph;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A read-only implementation of the GraphIfc interface that stores the adjacency in
+ * compressed sparse row form: the neighbors of vertex v are targets[offsets[v-1]] up to
+ * targets[offsets[v]], sorted in increasing order, with their weights at the same
+ * positions of the weights array. Vertices are the integers 1...n.
+ *
+ * This is the snapshot the traversal-heavy algorithms work on, since walking two int
+ * arrays is far cheaper than walking a HashMap of ArrayLists of boxed Integers.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class CompactGraph implements GraphIfc<Integer> {
+
+    final int numVertices;
+    final int[] offsets;
+    final int[] targets;
+    final int[] weights; // null if every edge has weight 1
+    private final int maxWeight;
+
+    // built on first use; a race between threads at worst builds one twice
+    private CompactGraph transpose;
+    private CompactGraph symmetric;
+
+    /**
+     * Takes a snapshot of a graph whose vertices are the integers 1...n
+     * @param graph the graph to be copied
+     * @throws IllegalArgumentException if the vertices are not numbered 1...n
+     */
+    public CompactGraph(GraphIfc<Integer> graph){
+        int n = graph.numVertices();
+        for (int v = 1; v <= n; v++){
+            if (!graph.containsVertex(v)){
+                throw new IllegalArgumentException("vertices must be numbered 1 to " + n);
+            }
+        }
+        this.numVertices = n;
+        this.offsets = new int[n + 1];
+        for (int v = 1; v <= n; v++){
+            offsets[v] = offsets[v-1] + graph.degree(v);
+        }
+        this.targets = new int[offsets[n]];
+        this.weights = graph.isWeighted() ? new int[offsets[n]] : null;
+        for (int v = 1; v <= n; v++){
+            List<Integer> neighbors = graph.getNeighbors(v);
+            int[] w = graph.getWeights(v);
+            for (int i = 0; i < neighbors.size(); i++){
+                targets[offsets[v-1] + i] = neighbors.get(i);
+                if (weights != null){
+                    weights[offsets[v-1] + i] = w[i];
+                }
+            }
+        }
+        sortNeighbors();
+        this.maxWeight = largestWeight();
+    }
+
+    /**
+     * Wraps adjacency arrays that are already in compressed sparse row form
+     * @param n the number of vertices
+     * @param offsets n+1 offsets into targets
+     * @param targets the neighbor of each edge
+     * @param weights the weight of each edge, or null if unweighted
+     */
+    CompactGraph(int n, int[] offsets, int[] targets, int[] weights){
+        this.numVertices = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        sortNeighbors();
+        this.maxWeight = largestWeight();
+    }
+
+    private int largestWeight(){
+        if (weights == null){
+            return targets.length == 0 ? 0 : 1;
+        }
+        int largest = 0;
+        for (int w : weights){
+            largest = Math.max(largest, w);
+        }
+        return largest;
+    }
+
+    /**
+     * Sorts every neighbor list, carrying the weights along
+     */
+    private void sortNeighbors(){
+        long[] scratch = new long[0];
+        for (int v = 1; v <= numVertices; v++){
+            int start = offsets[v-1];
+            int end = offsets[v];
+            if (weights == null){
+                Arrays.sort(targets, start, end);
+                continue;
+            }
+            if (scratch.length < end - start){
+                scratch = new long[end - start];
+            }
+            for (int i = start; i < end; i++){
+                scratch[i - start] = ((long) targets[i] << 32) | (weights[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(scratch, 0, end - start);
+            for (int i = start; i < end; i++){
+                targets[i] = (int) (scratch[i - start] >>> 32);
+                weights[i] = (int) scratch[i - start];
+            }
+        }
+    }
+
+    /**
+     * Returns the graph with every edge reversed. It is built on the first call and kept, and
+     * for a symmetric graph, such as the ones the analyzer builds, it is this graph itself.
+     * @return the transpose of this graph
+     */
+    public CompactGraph transpose(){
+        CompactGraph reverse = transpose;
+        if (reverse == null){
+            reverse = reverse();
+            if (Arrays.equals(offsets, reverse.offsets) && Arrays.equals(targets, reverse.targets)
+                    && Arrays.equals(weights, reverse.weights)){
+                reverse = this;
+            }
+            else{
+                reverse.transpose = this;
+            }
+            transpose = reverse;
+        }
+        return reverse;
+    }
+
+    /**
+     * Builds the graph with every edge reversed
+     */
+    private CompactGraph reverse(){
+        int[] inOffsets = new int[numVertices + 1];
+        for (int t : targets){
+            inOffsets[t]++;
+        }
+        for (int v = 1; v <= numVertices; v++){
+            inOffsets[v] += inOffsets[v-1];
+        }
+        int[] fill = Arrays.copyOf(inOffsets, numVertices);
+        int[] inTargets = new int[targets.length];
+        int[] inWeights = weights == null ? null : new int[targets.length];
+        for (int u = 1; u <= numVertices; u++){
+            for (int i = offsets[u-1]; i < offsets[u]; i++){
+                int slot = fill[targets[i]-1]++;
+                inTargets[slot] = u;
+                if (inWeights != null){
+                    inWeights[slot] = weights[i];
+                }
+            }
+        }
+        return new CompactGraph(numVertices, inOffsets, inTargets, inWeights);
+    }
+
+    /**
+     * Returns the unweighted graph with every edge present in both directions, for the
+     * algorithms that treat the graph as undirected. Like the transpose it is kept after the
+     * first call, and an unweighted symmetric graph is its own closure.
+     * @return the symmetric closure of this graph
+     */
+    public CompactGraph symmetric(){
+        CompactGraph closure = symmetric;
+        if (closure == null){
+            CompactGraph reverse = transpose();
+            if (reverse != this){
+                closure = closure(reverse);
+            }
+            else if (weights != null){
+                closure = new CompactGraph(numVertices, offsets, targets, null);
+            }
+            else{
+                closure = this;
+            }
+            symmetric = closure;
+        }
+        return closure;
+    }
+
+    /**
+     * Merges the edges of this graph and its transpose, dropping the weights
+     */
+    private CompactGraph closure(CompactGraph reverse){
+        int n = numVertices;
+        int[] symOffsets = new int[n + 1];
+        int[] symTargets = new int[targets.length + reverse.targets.length];
+        for (int v = 1; v <= n; v++){
+            // merge the two sorted lists, dropping duplicates
+            int i = offsets[v-1];
+            int j = reverse.offsets[v-1];
+            int position = symOffsets[v-1];
+            while (i < offsets[v] || j < reverse.offsets[v]){
+                int next;
+                if (j == reverse.offsets[v] || (i < offsets[v] && targets[i] < reverse.targets[j])){
+                    next = targets[i++];
+                }
+                else if (i == offsets[v] || reverse.targets[j] < targets[i]){
+                    next = reverse.targets[j++];
+                }
+                else{
+                    next = targets[i++];
+                    j++;
+                }
+                symTargets[position++] = next;
+            }
+            symOffsets[v] = position;
+        }
+        return new CompactGraph(n, symOffsets, Arrays.copyOf(symTargets, symOffsets[n]), null);
+    }
+
+    public int numVertices(){
+        return numVertices;
+    }
+
+    public int numEdges(){
+        return targets.length;
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void clear(){
+        throw new UnsupportedOperationException("a compact graph is read-only");
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void addVertex(Integer v){
+        throw new UnsupportedOperationException("a compact graph is read-only");
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void addEdge(Integer u, Integer v){
+        throw new UnsupportedOperationException("a compact graph is read-only");
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void addEdge(Integer u, Integer v, int weight){
+        throw new UnsupportedOperationException("a compact graph is read-only");
+    }
+
+    /**
+     * Returns the set of all vertices in the graph, the integers 1...n.
+     * @return A set containing all vertices in the graph
+     */
+    public Set<Integer> getVertices(){
+        Set<Integer> vertices = new LinkedHashSet<>();
+        for (int v = 1; v <= numVertices; v++){
+            vertices.add(v);
+        }
+        return vertices;
+    }
+
+    /**
+     * Returns the neighbors of v in increasing order, as a view onto the targets array.
+     * @param v An existing node in the graph
+     * @return All neighbors of v in the graph.
+     * @throws IllegalArgumentException if the vertex does not occur in the graph
+     */
+    public List<Integer> getNeighbors(Integer v){
+        checkVertex(v);
+        final int start = offsets[v-1];
+        final int size = offsets[v] - start;
+        return new AbstractList<Integer>(){
+            public Integer get(int i){
+                if (i < 0 || i >= size){
+                    throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+                }
+                return targets[start + i];
+            }
+            public int size(){
+                return size;
+            }
+        };
+    }
+
+    public boolean containsVertex(Integer v){
+        return v != null && v >= 1 && v <= numVertices;
+    }
+
+    /**
+     * Determines whether an edge exists from v to u by binary searching the neighbors of v.
+     * @param v A node in the graph
+     * @param u A node in the graph
+     * @return True if an edge exists between the two vertices
+     * @throws IllegalArgumentException if either vertex does not occur in the graph
+     */
+    public boolean edgeExists(Integer v, Integer u){
+        checkVertex(v);
+        checkVertex(u);
+        return Arrays.binarySearch(targets, offsets[v-1], offsets[v], u) >= 0;
+    }
+
+    public int getWeight(Integer v, Integer u){
+        checkVertex(v);
+        checkVertex(u);
+        int index = Arrays.binarySearch(targets, offsets[v-1], offsets[v], u);
+        if (index < 0){
+            throw new IllegalArgumentException("the edge did not appear in the graph");
+        }
+        return weights == null ? 1 : weights[index];
+    }
+
+    /**
+     * Returns a copy of the edge weights of v, parallel to <code>getNeighbors(v)</code>
+     * @param v An existing node in the graph
+     * @return The weights of the edges leaving v
+     * @throws IllegalArgumentException if the vertex does not occur in the graph
+     */
+    public int[] getWeights(Integer v){
+        checkVertex(v);
+        if (weights == null){
+            int[] ones = new int[offsets[v] - offsets[v-1]];
+            Arrays.fill(ones, 1);
+            return ones;
+        }
+        return Arrays.copyOfRange(weights, offsets[v-1], offsets[v]);
+    }
+
+    public boolean isWeighted(){
+        return weights != null;
+    }
+
+    /**
+     * Returns the largest edge weight, which sizes the monotone queues of shortest path searches
+     * @return The largest edge weight, 1 for an unweighted graph, or 0 if the graph has no edges
+     */
+    public int maxWeight(){
+        return maxWeight;
+    }
+
+    public int degree(Integer v){
+        checkVertex(v);
+        return offsets[v] - offsets[v-1];
+    }
+
+    public String toString(){
+        StringBuilder str = new StringBuilder("{");
+        for (int v = 1; v <= numVertices; v++){
+            if (v > 1){
+                str.append(", ");
+            }
+            str.append(v).append('=').append(getNeighbors(v));
+        }
+        return str.append('}').toString();
+    }
+
+    private void checkVertex(Integer v){
+        if (!containsVertex(v)){
+            throw new IllegalArgumentException("Vertex did not appear in the graph");
+        }
+    }
+}
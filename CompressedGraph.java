@@ -0,0 +1,612 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A read-only implementation of the GraphIfc interface that stores every neighbor list
+ * compressed in one byte array. Each list is sorted, the gaps between consecutive neighbors
+ * are written as variable-length integers, and a list may copy the neighbors it shares with
+ * one of the previous WINDOW lists instead of repeating them (reference compression).
+ *
+ * Vertices are the integers 1...n. The record of vertex v is
+ * <ul>
+ * <li> degree, then the distance back to the referenced vertex (0 for none)</li>
+ * <li> if referencing: the number of blocks, then block lengths alternating copy/skip over the referenced list</li>
+ * <li> the number of residual neighbors, the first as a zig-zag offset from v, the rest as gaps minus one</li>
+ * <li> if weighted: one weight per neighbor in increasing neighbor order</li>
+ * </ul>
+ * all as 7-bit varints. A referenced list never references another list itself, so decoding
+ * needs at most one level of indirection.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class CompressedGraph implements GraphIfc<Integer> {
+
+    // how many previous lists a list may copy from
+    static final int WINDOW = 7;
+
+    private final byte[] data;
+    private final int[] offsets;
+    private final int numVertices;
+    private final int numEdges;
+    private final boolean weighted;
+    private final boolean[] referenced; // true if the list of vertex i+1 copies from another list
+
+    /**
+     * Compresses a graph whose vertices are the integers 1...n
+     * @param graph the graph to be compressed
+     * @param useReferences true to copy shared neighbors from nearby lists, false for gap encoding only
+     * @throws IllegalArgumentException if the vertices are not numbered 1...n
+     */
+    public CompressedGraph(GraphIfc<Integer> graph, boolean useReferences){
+        int n = graph.numVertices();
+        for (int v = 1; v <= n; v++){
+            if (!graph.containsVertex(v)){
+                throw new IllegalArgumentException("vertices must be numbered 1 to " + n);
+            }
+        }
+        this.numVertices = n;
+        this.weighted = graph.isWeighted();
+        this.offsets = new int[n + 1];
+        this.referenced = new boolean[n];
+
+        int[][] lists = new int[n][];
+        int[][] weights = weighted ? new int[n][] : null;
+        int edges = 0;
+        for (int v = 1; v <= n; v++){
+            List<Integer> neighbors = graph.getNeighbors(v);
+            int[] w = graph.getWeights(v);
+            long[] sorted = new long[neighbors.size()];
+            for (int i = 0; i < sorted.length; i++){
+                sorted[i] = ((long) neighbors.get(i) << 32) | (w[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(sorted);
+            lists[v-1] = new int[sorted.length];
+            if (weighted){
+                weights[v-1] = new int[sorted.length];
+            }
+            for (int i = 0; i < sorted.length; i++){
+                lists[v-1][i] = (int) (sorted[i] >>> 32);
+                if (weighted){
+                    weights[v-1][i] = (int) sorted[i];
+                }
+            }
+            edges += sorted.length;
+        }
+        this.numEdges = edges;
+
+        Encoder out = new Encoder(Math.max(16, edges * 2));
+        Encoder scratch = new Encoder(64);
+        for (int v = 1; v <= n; v++){
+            offsets[v-1] = out.size;
+            int[] list = lists[v-1];
+            int best = 0;
+            if (useReferences && list.length > 0){
+                // encode against each candidate and keep the shortest record
+                scratch.size = 0;
+                encode(scratch, v, list, null, 0);
+                int bestSize = scratch.size;
+                for (int r = 1; r <= WINDOW && v - r >= 1; r++){
+                    if (referenced[v-r-1] || lists[v-r-1].length == 0){
+                        continue;
+                    }
+                    scratch.size = 0;
+                    encode(scratch, v, list, lists[v-r-1], r);
+                    if (scratch.size < bestSize){
+                        bestSize = scratch.size;
+                        best = r;
+                    }
+                }
+            }
+            referenced[v-1] = best != 0;
+            encode(out, v, list, best == 0 ? null : lists[v-best-1], best);
+            if (weighted){
+                for (int w : weights[v-1]){
+                    out.writeVarint(w);
+                }
+            }
+        }
+        offsets[n] = out.size;
+        this.data = Arrays.copyOf(out.bytes, out.size);
+    }
+
+    /**
+     * Writes the neighbor record of v (without weights)
+     * @param out where the record is written
+     * @param v the vertex
+     * @param list the sorted neighbors of v
+     * @param reference the sorted neighbors of the referenced vertex, or null
+     * @param distance v minus the referenced vertex, or 0
+     */
+    private static void encode(Encoder out, int v, int[] list, int[] reference, int distance){
+        out.writeVarint(list.length);
+        out.writeVarint(distance);
+        int[] residuals = list;
+        int numResiduals = list.length;
+        if (reference != null){
+            // walk the reference list, recording runs of copied and skipped entries
+            residuals = new int[list.length];
+            numResiduals = 0;
+            int[] blocks = new int[reference.length + 1];
+            int numBlocks = 0;
+            boolean copying = true;
+            int run = 0;
+            int i = 0;
+            for (int r : reference){
+                while (i < list.length && list[i] < r){
+                    residuals[numResiduals++] = list[i++];
+                }
+                boolean shared = i < list.length && list[i] == r;
+                if (shared != copying){
+                    blocks[numBlocks++] = run;
+                    copying = shared;
+                    run = 0;
+                }
+                run++;
+                if (shared){
+                    i++;
+                }
+            }
+            while (i < list.length){
+                residuals[numResiduals++] = list[i++];
+            }
+            if (copying){
+                blocks[numBlocks++] = run; // a trailing skip block is implied
+            }
+            out.writeVarint(numBlocks);
+            for (int b = 0; b < numBlocks; b++){
+                out.writeVarint(blocks[b]);
+            }
+        }
+        out.writeVarint(numResiduals);
+        int previous = v;
+        for (int i = 0; i < numResiduals; i++){
+            if (i == 0){
+                int offset = residuals[0] - v;
+                out.writeVarint((offset << 1) ^ (offset >> 31));
+            }
+            else{
+                out.writeVarint(residuals[i] - previous - 1);
+            }
+            previous = residuals[i];
+        }
+    }
+
+    /**
+     * Returns a cursor for streaming neighbor lists. A cursor can be reset to any vertex and
+     * decodes without allocating, so one cursor should be reused for a whole traversal.
+     * @return a new neighbor cursor
+     */
+    public NeighborCursor cursor(){
+        return new NeighborCursor();
+    }
+
+    /**
+     * Streams the neighbors of one vertex in increasing order, merging the entries copied from
+     * the referenced list with the residuals.
+     */
+    public class NeighborCursor {
+        private int position;          // next residual byte
+        private int residualsLeft;
+        private int nextResidual;      // -1 if exhausted
+
+        private int refPosition;       // next byte of the referenced list's residuals
+        private int refLeft;
+        private int refValue;
+        private int blockPosition;     // next block length
+        private int blocksLeft;
+        private int blockRemaining;
+        private boolean copying;
+        private int nextCopied;        // -1 if exhausted
+
+        private boolean refFirst;      // the first residual of the referenced list is a zig-zag offset
+        private int lastPosition;
+
+        private int weightPosition;
+
+        private NeighborCursor(){
+        }
+
+        /**
+         * Positions the cursor at the start of the neighbors of v
+         * @param v a vertex in the graph
+         * @return the degree of v
+         * @throws IllegalArgumentException if the vertex does not occur in the graph
+         */
+        public int reset(int v){
+            if (v < 1 || v > numVertices){
+                throw new IllegalArgumentException("Vertex did not appear in the graph");
+            }
+            position = offsets[v-1];
+            int degree = readVarint();
+            int distance = readVarint();
+            nextCopied = -1;
+            refLeft = 0;
+            blocksLeft = 0;
+            if (distance != 0){
+                blocksLeft = readVarint();
+                blockPosition = position;
+                for (int b = 0; b < blocksLeft; b++){
+                    readVarint();
+                }
+                // the referenced list has no blocks of its own, only residuals
+                int saved = position;
+                position = offsets[v-distance-1];
+                readVarint();
+                readVarint();
+                refLeft = readVarint();
+                refValue = v - distance;
+                refFirst = true;
+                refPosition = position;
+                position = saved;
+                copying = false;
+                blockRemaining = 0;
+                nextCopied = advanceCopied();
+            }
+            residualsLeft = readVarint();
+            nextResidual = -1;
+            if (residualsLeft > 0){
+                int zigzag = readVarint();
+                nextResidual = v + ((zigzag >>> 1) ^ -(zigzag & 1));
+                residualsLeft--;
+            }
+            weightPosition = -1;
+            return degree;
+        }
+
+        /**
+         * Returns true if the current vertex has more neighbors
+         * @return true if next() can be called
+         */
+        public boolean hasNext(){
+            return nextResidual != -1 || nextCopied != -1;
+        }
+
+        /**
+         * Returns the next neighbor in increasing order
+         * @return the next neighbor
+         */
+        public int next(){
+            int result;
+            if (nextCopied == -1 || (nextResidual != -1 && nextResidual < nextCopied)){
+                result = nextResidual;
+                if (residualsLeft > 0){
+                    nextResidual += readVarint() + 1;
+                    residualsLeft--;
+                }
+                else{
+                    nextResidual = -1;
+                }
+            }
+            else{
+                result = nextCopied;
+                nextCopied = advanceCopied();
+            }
+            return result;
+        }
+
+        /**
+         * Returns the weight of the next edge; valid only after every neighbor has been read,
+         * with weights then returned in neighbor order
+         * @return the next weight
+         */
+        int nextWeight(){
+            if (!weighted){
+                return 1;
+            }
+            if (weightPosition == -1){
+                weightPosition = position;
+            }
+            int w = readVarintAt(weightPosition);
+            weightPosition = lastPosition;
+            return w;
+        }
+
+        /**
+         * Returns the next entry of the referenced list that lies in a copy block, or -1
+         */
+        private int advanceCopied(){
+            while (refLeft > 0){
+                while (blockRemaining == 0){
+                    if (blocksLeft == 0){
+                        return -1; // the rest of the referenced list is skipped
+                    }
+                    blockRemaining = readVarintAt(blockPosition);
+                    blockPosition = lastPosition;
+                    blocksLeft--;
+                    copying = !copying;
+                }
+                int raw = readVarintAt(refPosition);
+                refPosition = lastPosition;
+                refValue += refFirst ? (raw >>> 1) ^ -(raw & 1) : raw + 1;
+                refFirst = false;
+                refLeft--;
+                blockRemaining--;
+                if (copying){
+                    return refValue;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Reads a varint at the given position without moving the cursor, leaving the
+         * position after it in lastPosition
+         */
+        private int readVarintAt(int at){
+            int saved = position;
+            position = at;
+            int value = readVarint();
+            lastPosition = position;
+            position = saved;
+            return value;
+        }
+
+        private int readVarint(){
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do{
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Returns the average number of bits used per edge by the compressed lists
+     * @param includeOffsets true to count the per-vertex offset table as well
+     * @return the number of bits per edge
+     */
+    public double bitsPerEdge(boolean includeOffsets){
+        long bits = 8L * data.length + (includeOffsets ? 32L * offsets.length : 0);
+        return numEdges == 0 ? 0 : (double) bits / numEdges;
+    }
+
+    public int numVertices(){
+        return numVertices;
+    }
+
+    public int numEdges(){
+        return numEdges;
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void clear(){
+        throw new UnsupportedOperationException("a compressed graph is read-only");
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void addVertex(Integer v){
+        throw new UnsupportedOperationException("a compressed graph is read-only");
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void addEdge(Integer u, Integer v){
+        throw new UnsupportedOperationException("a compressed graph is read-only");
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void addEdge(Integer u, Integer v, int weight){
+        throw new UnsupportedOperationException("a compressed graph is read-only");
+    }
+
+    /**
+     * Returns the set of all vertices in the graph, the integers 1...n.
+     * @return A set containing all vertices in the graph
+     */
+    public Set<Integer> getVertices(){
+        Set<Integer> vertices = new LinkedHashSet<>();
+        for (int v = 1; v <= numVertices; v++){
+            vertices.add(v);
+        }
+        return vertices;
+    }
+
+    /**
+     * Returns the neighbors of v in increasing order, decoded into a new list. Traversals
+     * should use a NeighborCursor instead.
+     * @param v An existing node in the graph
+     * @return All neighbors of v in the graph.
+     * @throws IllegalArgumentException if the vertex does not occur in the graph
+     */
+    public List<Integer> getNeighbors(Integer v){
+        checkVertex(v);
+        NeighborCursor cursor = cursor();
+        List<Integer> neighbors = new ArrayList<>(cursor.reset(v));
+        while (cursor.hasNext()){
+            neighbors.add(cursor.next());
+        }
+        return neighbors;
+    }
+
+    public boolean containsVertex(Integer v){
+        return v != null && v >= 1 && v <= numVertices;
+    }
+
+    public boolean edgeExists(Integer v, Integer u){
+        checkVertex(v);
+        checkVertex(u);
+        NeighborCursor cursor = cursor();
+        cursor.reset(v);
+        while (cursor.hasNext()){
+            int next = cursor.next();
+            if (next >= u){
+                return next == u;
+            }
+        }
+        return false;
+    }
+
+    public int getWeight(Integer v, Integer u){
+        checkVertex(v);
+        checkVertex(u);
+        NeighborCursor cursor = cursor();
+        cursor.reset(v);
+        int index = 0;
+        int found = -1;
+        while (cursor.hasNext()){
+            if (cursor.next() == u){
+                found = index;
+            }
+            index++;
+        }
+        if (found == -1){
+            throw new IllegalArgumentException("the edge did not appear in the graph");
+        }
+        int w = 1;
+        for (int i = 0; i <= found; i++){
+            w = cursor.nextWeight();
+        }
+        return w;
+    }
+
+    /**
+     * Returns the edge weights of v, parallel to <code>getNeighbors(v)</code>
+     * @param v An existing node in the graph
+     * @return The weights of the edges leaving v
+     * @throws IllegalArgumentException if the vertex does not occur in the graph
+     */
+    public int[] getWeights(Integer v){
+        checkVertex(v);
+        NeighborCursor cursor = cursor();
+        int[] weights = new int[cursor.reset(v)];
+        while (cursor.hasNext()){
+            cursor.next();
+        }
+        for (int i = 0; i < weights.length; i++){
+            weights[i] = cursor.nextWeight();
+        }
+        return weights;
+    }
+
+    public boolean isWeighted(){
+        return weighted;
+    }
+
+    /**
+     * Returns the degree of the vertex, read from the front of its record.
+     * @param v A vertex in the graph
+     * @return The degree of the vertex
+     * @throws IllegalArgumentException if the vertex does not occur in the graph
+     */
+    public int degree(Integer v){
+        checkVertex(v);
+        int position = offsets[v-1];
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do{
+            b = data[position++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    public String toString(){
+        StringBuilder str = new StringBuilder("{");
+        for (int v = 1; v <= numVertices; v++){
+            if (v > 1){
+                str.append(", ");
+            }
+            str.append(v).append('=').append(getNeighbors(v));
+        }
+        return str.append('}').toString();
+    }
+
+    private void checkVertex(Integer v){
+        if (!containsVertex(v)){
+            throw new IllegalArgumentException("Vertex did not appear in the graph");
+        }
+    }
+
+    /**
+     * A growable byte buffer for writing varints
+     */
+    private static class Encoder {
+        byte[] bytes;
+        int size;
+
+        Encoder(int capacity){
+            bytes = new byte[capacity];
+        }
+
+        void writeVarint(int value){
+            if (size + 5 > bytes.length){
+                bytes = Arrays.copyOf(bytes, 2 * bytes.length + 5);
+            }
+            while ((value & ~0x7F) != 0){
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+    }
+
+    /**
+     * Compares memory use and breadth-first traversal speed against Graph on a random
+     * graph with the clustered neighborhoods typical of co-rating graphs.
+     * Usage: java graph.CompressedGraph [vertices] [average degree]
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        Random random = new Random(361);
+        Graph<Integer> g = new Graph<>();
+        for (int v = 1; v <= n; v++){
+            g.addVertex(v);
+        }
+        for (int v = 1; v <= n; v++){
+            for (int i = 0; i < degree / 2; i++){
+                // mostly nearby vertices, with an occasional long-range edge
+                int u = random.nextInt(10) == 0 ? 1 + random.nextInt(n)
+                        : Math.floorMod(v - 1 + (int) (random.nextGaussian() * degree), n) + 1;
+                if (u != v){
+                    g.addEdge(v, u);
+                    g.addEdge(u, v);
+                }
+            }
+        }
+
+        CompressedGraph gaps = new CompressedGraph(g, false);
+        CompressedGraph refs = new CompressedGraph(g, true);
+        System.out.println("|V| = " + n + ", |E| = " + g.numEdges());
+        System.out.printf("Gap encoded:       %.2f bits/edge (%.2f with offsets)%n", gaps.bitsPerEdge(false), gaps.bitsPerEdge(true));
+        System.out.printf("With references:   %.2f bits/edge (%.2f with offsets)%n", refs.bitsPerEdge(false), refs.bitsPerEdge(true));
+        System.out.println("Graph (ArrayList): ~" + (32 + 16 * 8) + " bits/edge for a reference plus a boxed Integer");
+
+        for (int round = 0; round < 3; round++){
+            long start = System.nanoTime();
+            GraphAlgorithms.breadthFirstSearch(g, 1);
+            long graphTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            GraphAlgorithms.breadthFirstSearch(gaps, 1);
+            long gapTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            GraphAlgorithms.breadthFirstSearch(refs, 1);
+            long refTime = System.nanoTime() - start;
+            System.out.printf("BFS edges/ms: Graph %.0f, gap encoded %.0f, with references %.0f%n",
+                    g.numEdges() / (graphTime / 1e6), g.numEdges() / (gapTime / 1e6), g.numEdges() / (refTime / 1e6));
+        }
+    }
+}
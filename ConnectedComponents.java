@@ -0,0 +1,264 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The connected components of a graph, with the component of every vertex and the size of
+ * every component stored in arrays so that asking whether two vertices are in the same
+ * component takes constant time.
+ *
+ * Weakly connected components ignore edge directions and are found with union-find. Strongly
+ * connected components, whose vertices can all reach one another, are found with an iterative
+ * version of Tarjan's algorithm. For the symmetric graphs the analyzer builds the two agree.
+ * Vertices in different weak components have no path between them in either direction;
+ * vertices in different strong components may still have a path one way, but not both.
+ *
+ * Vertices are the integers 1...n and components are numbered 1...count() in order of their
+ * smallest vertex.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class ConnectedComponents {
+
+    private final int[] component; // indexed by vertex-1
+    private final int[] start;     // indexed by component-1; where its vertices begin in members
+    private final int[] members;   // the vertices grouped by component, ascending within each
+
+    /**
+     * Renumbers raw component labels in order of smallest vertex and groups the vertices
+     * @param label any labeling of the vertices, indexed by vertex-1, equal exactly within a component
+     */
+    private ConnectedComponents(int[] label){
+        int n = label.length;
+        component = new int[n];
+        int[] renamed = new int[n + 1];
+        int count = 0;
+        for (int v = 0; v < n; v++){
+            if (renamed[label[v]] == 0){
+                renamed[label[v]] = ++count;
+            }
+            component[v] = renamed[label[v]];
+        }
+        // counting sort of the vertices by component; scanning in order keeps each group ascending
+        start = new int[count + 1];
+        for (int v = 0; v < n; v++){
+            start[component[v]]++;
+        }
+        for (int c = 0; c < count; c++){
+            start[c+1] += start[c];
+        }
+        members = new int[n];
+        int[] next = Arrays.copyOf(start, count);
+        for (int v = 0; v < n; v++){
+            int c = component[v] - 1;
+            members[next[c]++] = v + 1;
+        }
+    }
+
+    /**
+     * Finds the weakly connected components of a graph with union-find
+     * @param graph the graph
+     * @return the components, treating every edge as undirected
+     */
+    public static ConnectedComponents weak(CompactGraph graph){
+        int n = graph.numVertices;
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for (int v = 0; v < n; v++){
+            parent[v] = v;
+            size[v] = 1;
+        }
+        for (int u = 0; u < n; u++){
+            for (int e = graph.offsets[u]; e < graph.offsets[u+1]; e++){
+                int a = find(parent, u);
+                int b = find(parent, graph.targets[e] - 1);
+                if (a != b){
+                    // union by size keeps the trees shallow
+                    if (size[a] < size[b]){
+                        int temp = a;
+                        a = b;
+                        b = temp;
+                    }
+                    parent[b] = a;
+                    size[a] += size[b];
+                }
+            }
+        }
+        int[] label = new int[n];
+        for (int v = 0; v < n; v++){
+            label[v] = find(parent, v) + 1;
+        }
+        return new ConnectedComponents(label);
+    }
+
+    /**
+     * Returns the root of a vertex's tree, halving the path on the way up
+     */
+    private static int find(int[] parent, int v){
+        while (parent[v] != v){
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Finds the strongly connected components of a graph with Tarjan's algorithm, using an
+     * explicit stack so that long paths cannot overflow the call stack
+     * @param graph the graph
+     * @return the components, in which every vertex can reach every other
+     */
+    public static ConnectedComponents strong(CompactGraph graph){
+        int n = graph.numVertices;
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] index = new int[n];     // discovery order, 0 if not yet visited
+        int[] low = new int[n];       // the smallest index reachable through the search tree
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];     // vertices whose component is not yet known
+        int[] callVertex = new int[n];
+        int[] callEdge = new int[n];  // the next edge to follow from callVertex
+        int[] label = new int[n];
+        int top = 0;
+        int counter = 0;
+        int count = 0;
+
+        for (int s = 1; s <= n; s++){
+            if (index[s-1] != 0){
+                continue;
+            }
+            index[s-1] = low[s-1] = ++counter;
+            stack[top++] = s;
+            onStack[s-1] = true;
+            callVertex[0] = s;
+            callEdge[0] = offsets[s-1];
+            int depth = 1;
+            while (depth > 0){
+                int u = callVertex[depth-1];
+                if (callEdge[depth-1] < offsets[u]){
+                    int w = targets[callEdge[depth-1]++];
+                    if (index[w-1] == 0){
+                        index[w-1] = low[w-1] = ++counter;
+                        stack[top++] = w;
+                        onStack[w-1] = true;
+                        callVertex[depth] = w;
+                        callEdge[depth] = offsets[w-1];
+                        depth++;
+                    }
+                    else if (onStack[w-1]){
+                        low[u-1] = Math.min(low[u-1], index[w-1]);
+                    }
+                }
+                else{
+                    depth--;
+                    if (low[u-1] == index[u-1]){
+                        // u is the root of a component: everything above it on the stack belongs to it
+                        count++;
+                        int w;
+                        do{
+                            w = stack[--top];
+                            onStack[w-1] = false;
+                            label[w-1] = count;
+                        } while (w != u);
+                    }
+                    if (depth > 0){
+                        int parent = callVertex[depth-1];
+                        low[parent-1] = Math.min(low[parent-1], low[u-1]);
+                    }
+                }
+            }
+        }
+        return new ConnectedComponents(label);
+    }
+
+    /**
+     * Returns the number of components
+     * @return the number of components
+     */
+    public int count(){
+        return start.length - 1;
+    }
+
+    /**
+     * Returns the component a vertex belongs to
+     * @param v a vertex in the graph
+     * @return the component id, from 1 to count()
+     */
+    public int componentOf(int v){
+        return component[v-1];
+    }
+
+    /**
+     * Returns the number of vertices in a component
+     * @param c a component id
+     * @return the size of the component
+     */
+    public int size(int c){
+        return start[c] - start[c-1];
+    }
+
+    /**
+     * Checks whether two vertices are in the same component. If they are not, there is no
+     * path between them; for weak components of a directed graph the converse need not hold
+     * @param u a vertex in the graph
+     * @param v a vertex in the graph
+     * @return true if u and v are in the same component
+     */
+    public boolean connected(int u, int v){
+        return component[u-1] == component[v-1];
+    }
+
+    /**
+     * Returns the vertices of a component
+     * @param c a component id
+     * @return the vertices of the component in ascending order
+     */
+    public int[] members(int c){
+        return Arrays.copyOfRange(members, start[c-1], start[c]);
+    }
+
+    /**
+     * Returns the component with the most vertices
+     * @return the id of the largest component, the lowest id on a tie, or 0 for an empty graph
+     */
+    public int largest(){
+        int best = 0;
+        for (int c = 1; c <= count(); c++){
+            if (best == 0 || size(c) > size(best)){
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Times the weak and strong components of a random directed graph.
+     * Usage: java graph.ConnectedComponents [vertices] [average degree]
+     */
+    public static void main(String[] args){
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        Random random = new Random(361);
+        Graph<Integer> g = new Graph<>();
+        for (int v = 1; v <= n; v++){
+            g.addVertex(v);
+        }
+        for (int v = 1; v <= n; v++){
+            for (int i = 0; i < degree; i++){
+                g.addEdge(v, 1 + random.nextInt(n));
+            }
+        }
+        CompactGraph graph = new CompactGraph(g);
+
+        long begin = System.nanoTime();
+        ConnectedComponents weak = weak(graph);
+        long weakTime = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        ConnectedComponents strong = strong(graph);
+        long strongTime = System.nanoTime() - begin;
+
+        System.out.printf("Weak: %d components, largest %d, %.0f ms%n", weak.count(), weak.size(weak.largest()), weakTime / 1e6);
+        System.out.printf("Strong: %d components, largest %d, %.0f ms%n", strong.count(), strong.size(strong.largest()), strongTime / 1e6);
+    }
+}
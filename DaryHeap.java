@@ -0,0 +1,176 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * An indexed min priority queue kept as a d-ary heap, where every node has up to d children.
+ * The tree is log base d of n deep instead of log base 2, so decreasing a priority, which only
+ * moves an element up, takes fewer steps, at the price of comparing d children on every step
+ * down during a pop. That suits Dijkstra's algorithm on dense graphs, which changes priorities
+ * far more often than it pops. With four or eight children the children of a node also share
+ * one or two cache lines.
+ *
+ * Like PriorityQueue, the heap is kept in parallel int arrays with a position index by element,
+ * so elements and priorities must be non-negative and no operation allocates once the arrays
+ * are large enough.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class DaryHeap implements IndexedPriorityQueue {
+
+	private final int arity;
+	private int[] priorities; // the heap: the priority in each slot
+	private int[] elements;   // the heap: the element in each slot
+	private int[] location;   // indexed by element; its slot in the heap, or -1 if absent
+	private int size;
+
+	/**
+	 *  Constructs an empty d-ary heap for the elements 0 to capacity-1
+	 *  @param arity the number of children of each node, at least 2
+	 *  @param capacity one more than the largest element expected
+	 */
+	public DaryHeap(int arity, int capacity) {
+		if(arity < 2) {
+			throw new IllegalArgumentException("a heap node needs at least two children: " + arity);
+		}
+		this.arity = arity;
+		capacity = Math.max(1, capacity);
+		priorities = new int[capacity];
+		elements = new int[capacity];
+		location = new int[capacity];
+		Arrays.fill(location, -1);
+	}
+
+	@Override
+	public void push(int priority, int element) {
+		assert(!isPresent(element));
+		assert(priority >= 0);
+		if(element >= location.length) {
+			int old = location.length;
+			location = Arrays.copyOf(location, Math.max(element + 1, 2 * old));
+			Arrays.fill(location, old, location.length, -1);
+		}
+		if(size == elements.length) {
+			priorities = Arrays.copyOf(priorities, 2 * size);
+			elements = Arrays.copyOf(elements, 2 * size);
+		}
+		percolateUp(size++, priority, element);
+	}
+
+	@Override
+	public void pop() {
+		if(size == 0) {
+			throw new AssertionError("heap is empty");
+		}
+		location[elements[0]] = -1;
+		size--;
+		if(size > 0) {
+			pushDown(0, priorities[size], elements[size]);
+		}
+	}
+
+	@Override
+	public int topPriority() {
+		assert(size > 0);
+		return priorities[0];
+	}
+
+	@Override
+	public int topElement() {
+		assert(size > 0);
+		return elements[0];
+	}
+
+	@Override
+	public void changePriority(int newpriority, int element) {
+		assert(isPresent(element));
+		int index = location[element];
+		if(index > 0 && newpriority < priorities[(index - 1) / arity]) {
+			percolateUp(index, newpriority, element);
+		}
+		else {
+			pushDown(index, newpriority, element);
+		}
+	}
+
+	@Override
+	public int getPriority(int element) {
+		assert(isPresent(element));
+		return priorities[location[element]];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean isPresent(int element) {
+		return element >= 0 && element < location.length && location[element] >= 0;
+	}
+
+	@Override
+	public void clear() {
+		for(int i = 0; i < size; i++) {
+			location[elements[i]] = -1;
+		}
+		size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Moves an element down from a slot, pulling the smallest child up into the hole each step
+	 */
+	private void pushDown(int index, int priority, int element) {
+		while(true) {
+			int first = arity * index + 1;
+			if(first >= size) {
+				break;
+			}
+			int last = Math.min(first + arity, size);
+			int smallest = first;
+			for(int c = first + 1; c < last; c++) {
+				if(priorities[c] < priorities[smallest]) {
+					smallest = c;
+				}
+			}
+			if(priority <= priorities[smallest]) {
+				break;
+			}
+			move(smallest, index);
+			index = smallest;
+		}
+		place(index, priority, element);
+	}
+
+	/**
+	 * Moves an element up from a slot, pulling larger parents down into the hole each step
+	 */
+	private void percolateUp(int index, int priority, int element) {
+		while(index > 0) {
+			int parent = (index - 1) / arity;
+			if(priorities[parent] <= priority) {
+				break;
+			}
+			move(parent, index);
+			index = parent;
+		}
+		place(index, priority, element);
+	}
+
+	private void move(int from, int to) {
+		priorities[to] = priorities[from];
+		elements[to] = elements[from];
+		location[elements[to]] = to;
+	}
+
+	private void place(int index, int priority, int element) {
+		priorities[index] = priority;
+		elements[index] = element;
+		location[element] = index;
+	}
+}
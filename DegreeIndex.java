@@ -0,0 +1,251 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps the degree statistics of a graph up to date as vertices and edges are added.
+ * Vertices are kept in one bucket per degree, each bucket a doubly linked list threaded
+ * through int arrays, and the non-empty buckets are themselves linked in increasing order
+ * of degree. Adding an edge moves one vertex from bucket d to bucket d+1, which is O(1),
+ * and the top k vertices are found by walking the non-empty buckets down from the maximum.
+ * A Fenwick tree over the bucket sizes answers percentile queries in O(log maxDegree).
+ *
+ * Degrees only ever grow since the graph has no edge removal.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+class DegreeIndex<V> {
+
+    private static final int NONE = -1;
+
+    private HashMap<V, Integer> slotOf;
+    private List<V> vertexAt;
+    private int[] degree;      // degree of each slot
+    private int[] next;        // next slot in the same bucket
+    private int[] prev;        // previous slot in the same bucket
+
+    private int[] head;        // first slot in each degree bucket
+    private int[] count;       // number of vertices with each degree
+    private int[] higher;      // next larger non-empty degree
+    private int[] lower;       // next smaller non-empty degree
+    private int[] fenwick;     // prefix sums of count, 1-indexed
+    private int lowest = NONE; // smallest non-empty degree
+    private int maxDegree = NONE;
+
+    DegreeIndex(){
+        clear();
+    }
+
+    /**
+     * Removes every vertex from the index
+     */
+    void clear(){
+        slotOf = new HashMap<>();
+        vertexAt = new ArrayList<>();
+        degree = new int[16];
+        next = new int[16];
+        prev = new int[16];
+        head = new int[16];
+        count = new int[16];
+        higher = new int[16];
+        lower = new int[16];
+        fenwick = new int[17];
+        Arrays.fill(head, NONE);
+        lowest = NONE;
+        maxDegree = NONE;
+    }
+
+    /**
+     * Adds a new vertex with degree 0
+     * @param v a vertex that is not yet in the index
+     */
+    void add(V v){
+        int slot = vertexAt.size();
+        slotOf.put(v, slot);
+        vertexAt.add(v);
+        if (slot == degree.length){
+            int capacity = 2 * slot;
+            degree = Arrays.copyOf(degree, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        degree[slot] = 0;
+        if (count[0] == 0){
+            insertBucket(0, NONE);
+        }
+        link(slot, 0);
+    }
+
+    /**
+     * Records one more edge leaving v
+     * @param v a vertex in the index
+     */
+    void increment(V v){
+        int slot = slotOf.get(v);
+        int d = degree[slot];
+        if (d + 1 == head.length){
+            growBuckets();
+        }
+        if (count[d+1] == 0){
+            insertBucket(d + 1, d); // d is still non-empty since it holds v
+        }
+        unlink(slot, d);
+        degree[slot] = d + 1;
+        link(slot, d + 1);
+        if (count[d] == 0){
+            removeBucket(d);
+        }
+    }
+
+    /**
+     * Returns a vertex of maximum degree, or null if there are no vertices
+     */
+    V maxVertex(){
+        return maxDegree == NONE ? null : vertexAt.get(head[maxDegree]);
+    }
+
+    /**
+     * Returns the maximum degree, or 0 if there are no vertices
+     */
+    int maxDegree(){
+        return maxDegree == NONE ? 0 : maxDegree;
+    }
+
+    /**
+     * Returns the number of vertices with each degree, indexed by degree
+     */
+    int[] histogram(){
+        return Arrays.copyOf(count, maxDegree() + 1);
+    }
+
+    /**
+     * Returns up to k vertices in decreasing order of degree
+     */
+    List<V> topK(int k){
+        List<V> top = new ArrayList<>(Math.min(k, vertexAt.size()));
+        for (int d = maxDegree; d != NONE && top.size() < k; d = lower[d]){
+            for (int slot = head[d]; slot != NONE && top.size() < k; slot = next[slot]){
+                top.add(vertexAt.get(slot));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Returns the smallest degree d such that at least the given percentage of vertices have
+     * degree d or less
+     */
+    int percentile(double percent){
+        int n = vertexAt.size();
+        if (n == 0){
+            return 0;
+        }
+        int target = Math.max(1, (int) Math.ceil(percent / 100.0 * n));
+        // descend the Fenwick tree for the first prefix reaching the target
+        int position = 0;
+        int remaining = target;
+        for (int step = Integer.highestOneBit(fenwick.length - 1); step > 0; step >>= 1){
+            int candidate = position + step;
+            if (candidate < fenwick.length && fenwick[candidate] < remaining){
+                position = candidate;
+                remaining -= fenwick[candidate];
+            }
+        }
+        return Math.min(position, maxDegree()); // position is the 0-based degree
+    }
+
+    private void link(int slot, int d){
+        prev[slot] = NONE;
+        next[slot] = head[d];
+        if (head[d] != NONE){
+            prev[head[d]] = slot;
+        }
+        head[d] = slot;
+        count[d]++;
+        update(d, 1);
+    }
+
+    private void unlink(int slot, int d){
+        if (prev[slot] != NONE){
+            next[prev[slot]] = next[slot];
+        }
+        else{
+            head[d] = next[slot];
+        }
+        if (next[slot] != NONE){
+            prev[next[slot]] = prev[slot];
+        }
+        count[d]--;
+        update(d, -1);
+    }
+
+    /**
+     * Links an empty bucket into the list of non-empty buckets just above another
+     * @param d the bucket becoming non-empty
+     * @param below the next smaller non-empty degree, or NONE if d is the smallest
+     */
+    private void insertBucket(int d, int below){
+        int above = below != NONE ? higher[below] : lowest;
+        lower[d] = below;
+        higher[d] = above;
+        if (below != NONE){
+            higher[below] = d;
+        }
+        else{
+            lowest = d;
+        }
+        if (above != NONE){
+            lower[above] = d;
+        }
+        if (d > maxDegree){
+            maxDegree = d;
+        }
+    }
+
+    /**
+     * Unlinks a bucket that has become empty from the list of non-empty buckets
+     * @param d the empty bucket
+     */
+    private void removeBucket(int d){
+        if (lower[d] != NONE){
+            higher[lower[d]] = higher[d];
+        }
+        else{
+            lowest = higher[d];
+        }
+        if (higher[d] != NONE){
+            lower[higher[d]] = lower[d];
+        }
+        if (d == maxDegree){
+            maxDegree = lower[d];
+        }
+    }
+
+    private void update(int d, int delta){
+        for (int i = d + 1; i < fenwick.length; i += i & -i){
+            fenwick[i] += delta;
+        }
+    }
+
+    private void growBuckets(){
+        int capacity = 2 * head.length;
+        int old = head.length;
+        head = Arrays.copyOf(head, capacity);
+        Arrays.fill(head, old, capacity, NONE);
+        count = Arrays.copyOf(count, capacity);
+        higher = Arrays.copyOf(higher, capacity);
+        lower = Arrays.copyOf(lower, capacity);
+        // rebuild the Fenwick tree for the new size from the bucket counts
+        fenwick = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++){
+            fenwick[i] += count[i-1];
+            int parent = i + (i & -i);
+            if (parent <= capacity){
+                fenwick[parent] += fenwick[i];
+            }
+        }
+    }
+}
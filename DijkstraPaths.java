@@ -0,0 +1,261 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+import util.IndexedPriorityQueue;
+
+/**
+ * Single source shortest paths for graphs with non-negative edge weights, by Dijkstra's
+ * algorithm with lazy insertion: a node enters the priority queue when it is first reached,
+ * not at the start with an infinite distance. A search can stop as soon as a target node is
+ * settled or every node within a distance bound has been, so a single pair query only pays for
+ * the part of the graph closer to the source than the target. Given a lower bound on the
+ * distance to the target, such as PathQueryService's landmark bound, a search on a CompactGraph
+ * runs as A* and pays only for the part of the graph the bound cannot rule out.
+ *
+ * The distance and previous arrays are kept between searches. Each entry carries the number
+ * of the search that last wrote it, and an entry with an older number counts as unreached, so
+ * starting a search resets nothing. Vertices are the integers 1...n. An instance is not
+ * thread safe.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class DijkstraPaths {
+
+    private int[] distance; // indexed by vertex-1, valid only if stamp matches the search
+    private int[] previous; // indexed by vertex-1, valid only if stamp matches the search
+    private int[] stamp;    // indexed by vertex-1, the search that last reached the vertex
+    private int search = 1; // the number of the current search; never 0, the stamp of an unreached vertex
+    private int[] settled;  // vertices in the order they were settled
+    private int numSettled;
+    private IndexedPriorityQueue queue;
+    private int queueWeight = -1; // the largest edge weight queue was chosen for
+
+    /**
+     * Creates a search workspace for graphs of up to the given number of vertices; it grows
+     * if a larger graph is searched
+     * @param capacity the expected number of vertices
+     */
+    public DijkstraPaths(int capacity){
+        distance = new int[capacity];
+        previous = new int[capacity];
+        stamp = new int[capacity];
+        settled = new int[capacity];
+    }
+
+    /**
+     * Searches a graph from the source until every reachable node is settled
+     * @param graph a graph whose vertices are numbered 1...n
+     * @param source the node to search from
+     * @return the number of nodes settled, including the source
+     */
+    public int search(GraphIfc<Integer> graph, int source){
+        return search(graph, source, 0, GraphAlgorithms.INFINITY);
+    }
+
+    /**
+     * Searches a graph from the source, stopping once the target is settled or the next node
+     * to settle is further away than the bound
+     * @param graph a graph whose vertices are numbered 1...n
+     * @param source the node to search from
+     * @param target the node to stop at, or 0 to stop only at the bound
+     * @param bound the largest distance to settle nodes at
+     * @return the number of nodes settled, including the source
+     */
+    public int search(GraphIfc<Integer> graph, int source, int target, int bound){
+        int n = graph.numVertices();
+        start(n, graph instanceof Graph ? ((Graph<Integer>) graph).maxWeight() : -1);
+        reach(source, 0, 0);
+        queue.push(0, source);
+        while (!queue.isEmpty() && queue.topPriority() <= bound){
+            int u = queue.topElement();
+            queue.pop();
+            settled[numSettled++] = u;
+            if (u == target){
+                break;
+            }
+            int du = distance[u-1];
+            List<Integer> neighbors = graph.getNeighbors(u);
+            int[] weights = graph.getWeights(u);
+            for (int i = 0; i < neighbors.size(); i++){
+                int v = neighbors.get(i);
+                int alt = du + weights[i];
+                if (alt > bound){
+                    continue;
+                }
+                if (stamp[v-1] != search){
+                    reach(v, alt, u);
+                    queue.push(alt, v);
+                }
+                else if (alt < distance[v-1]){
+                    distance[v-1] = alt;
+                    previous[v-1] = u;
+                    queue.changePriority(alt, v);
+                }
+            }
+        }
+        return numSettled;
+    }
+
+    /**
+     * Searches a compact graph from the source until the target is settled, as A*: a node is
+     * keyed by its distance plus a lower bound on its distance to the target, so nodes leading
+     * away from the target are settled late or not at all. The bound must be consistent, never
+     * falling by more than the length of an edge across it, so that a node's distance is final
+     * once it is settled. A node whose bound is INFINITY cannot reach the target and is skipped.
+     * With a bound of 0 this is Dijkstra's algorithm stopped at the target
+     * @param graph a compact graph
+     * @param source the node to search from
+     * @param target the node to stop at
+     * @param potential a consistent lower bound on the distance from a node to the target
+     * @return the number of nodes settled, including the source
+     */
+    public int search(CompactGraph graph, int source, int target, IntUnaryOperator potential){
+        // across an edge of length w a key grows by w plus the change in the bound, which on a
+        // symmetric graph is at most w; larger jumps wait in the queue's overflow
+        start(graph.numVertices, 2 * graph.maxWeight());
+        int h = potential.applyAsInt(source);
+        if (h >= GraphAlgorithms.INFINITY){
+            return 0;
+        }
+        reach(source, 0, 0);
+        queue.push(h, source);
+        while (!queue.isEmpty()){
+            int u = queue.topElement();
+            queue.pop();
+            settled[numSettled++] = u;
+            if (u == target){
+                break;
+            }
+            int du = distance[u-1];
+            for (int e = graph.offsets[u-1]; e < graph.offsets[u]; e++){
+                int v = graph.targets[e];
+                int alt = du + (graph.weights == null ? 1 : graph.weights[e]);
+                if (stamp[v-1] != search){
+                    int hv = potential.applyAsInt(v);
+                    if (hv >= GraphAlgorithms.INFINITY){
+                        continue;
+                    }
+                    reach(v, alt, u);
+                    queue.push(alt + hv, v);
+                }
+                else if (alt < distance[v-1] && queue.isPresent(v)){
+                    queue.changePriority(alt + queue.getPriority(v) - distance[v-1], v);
+                    distance[v-1] = alt;
+                    previous[v-1] = u;
+                }
+            }
+        }
+        return numSettled;
+    }
+
+    /**
+     * Returns whether the last search settled a node, so that its distance is final
+     * @param v a node in the graph
+     * @return true if v was settled
+     */
+    public boolean isSettled(int v){
+        return queue != null && stamp[v-1] == search && !queue.isPresent(v);
+    }
+
+    /**
+     * Returns the length of the shortest path to v from the last source. For a node that was
+     * reached but not settled before the search stopped it is only an upper bound
+     * @param v a node in the graph
+     * @return the distance, or INFINITY if v was not reached
+     */
+    public int distance(int v){
+        return stamp[v-1] == search ? distance[v-1] : GraphAlgorithms.INFINITY;
+    }
+
+    /**
+     * Returns the node before v on the shortest path found from the last source
+     * @param v a node in the graph
+     * @return the previous node, or 0 if v is the source or was not reached
+     */
+    public int previous(int v){
+        return stamp[v-1] == search ? previous[v-1] : 0;
+    }
+
+    /**
+     * Returns the number of nodes settled by the last search
+     * @return the number of nodes settled, including the source
+     */
+    public int settled(){
+        return numSettled;
+    }
+
+    /**
+     * Returns the i-th node settled by the last search; nodes are settled in nondecreasing
+     * order of distance, or of distance plus bound after an A* search
+     * @param i an index less than settled()
+     * @return the node
+     */
+    public int settledNode(int i){
+        return settled[i];
+    }
+
+    /**
+     * Returns the shortest path to a settled node from the last source
+     * @param target a node settled by the last search
+     * @return the nodes along the path, or an empty list if target was not settled
+     */
+    public List<Integer> path(int target){
+        if (!isSettled(target)){
+            return Collections.emptyList();
+        }
+        List<Integer> path = new ArrayList<>();
+        for (int v = target; v != 0; v = previous[v-1]){
+            path.add(v);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Copies out the previous nodes of the last search in the form dijkstrasAlgorithm returns
+     * @param n the number of nodes in the graph
+     * @return the previous node of each node, indexed by node-1
+     */
+    public int[] previousNodes(int n){
+        int[] nodes = new int[n];
+        for (int v = 1; v <= n; v++){
+            nodes[v-1] = previous(v);
+        }
+        return nodes;
+    }
+
+    private void start(int n, int maxWeight){
+        if (n > distance.length){
+            int capacity = Math.max(n, 2 * distance.length);
+            distance = new int[capacity];
+            previous = new int[capacity];
+            stamp = new int[capacity];
+            settled = new int[capacity];
+            search = 1;
+            queue = null;
+        }
+        if (++search == 0){
+            // the search numbers wrapped around, so old stamps could match again
+            Arrays.fill(stamp, 0);
+            search = 1;
+        }
+        if (queue == null || maxWeight != queueWeight){
+            queue = GraphAlgorithms.monotoneQueue(maxWeight, distance.length + 1);
+            queueWeight = maxWeight;
+        }
+        else{
+            queue.clear(); // a search that stopped early leaves nodes behind
+        }
+        numSettled = 0;
+    }
+
+    private void reach(int v, int d, int u){
+        stamp[v-1] = search;
+        distance[v-1] = d;
+        previous[v-1] = u;
+    }
+}
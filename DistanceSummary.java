@@ -0,0 +1,103 @@
+package graph;
+
+/**
+ * Aggregate shortest path statistics over every ordered pair of vertices, built up one
+ * source at a time so that no V x V distance matrix is ever needed. Pairs with no path
+ * between them are counted separately rather than folded into the averages.
+ *
+ * Vertices are the integers 1...n and distances are numbers of edges.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class DistanceSummary {
+
+    private final int numVertices;
+    private final int[] eccentricity; // indexed by vertex-1; the largest finite distance from the vertex
+    private int diameter;
+    private long totalDistance;
+    private long reachablePairs;
+
+    /**
+     * Creates an empty summary for a graph with n vertices
+     * @param n the number of vertices
+     */
+    DistanceSummary(int n){
+        numVertices = n;
+        eccentricity = new int[n];
+    }
+
+    /**
+     * Folds in the distances from one source. Sources may be added from several threads
+     * @param source the source vertex
+     * @param farthest the largest finite distance from the source
+     * @param distanceSum the sum of the finite distances from the source
+     * @param reached the number of other vertices reachable from the source
+     */
+    synchronized void addSource(int source, int farthest, long distanceSum, long reached){
+        eccentricity[source-1] = farthest;
+        diameter = Math.max(diameter, farthest);
+        totalDistance += distanceSum;
+        reachablePairs += reached;
+    }
+
+    /**
+     * Returns the largest finite distance between any two vertices
+     * @return the diameter, ignoring pairs that are not connected
+     */
+    public int diameter(){
+        return diameter;
+    }
+
+    /**
+     * Returns the average distance over the ordered pairs of distinct vertices that are connected
+     * @return the average path length, or 0 if no pair is connected
+     */
+    public double averagePathLength(){
+        return reachablePairs == 0 ? 0 : (double) totalDistance / reachablePairs;
+    }
+
+    /**
+     * Returns the sum of the distances over all connected ordered pairs of distinct vertices
+     * @return the total distance
+     */
+    public long totalDistance(){
+        return totalDistance;
+    }
+
+    /**
+     * Returns the number of ordered pairs (u, v) of distinct vertices with a path from u to v
+     * @return the number of reachable pairs
+     */
+    public long reachablePairs(){
+        return reachablePairs;
+    }
+
+    /**
+     * Returns the number of ordered pairs (u, v) of distinct vertices with no path from u to v
+     * @return the number of unreachable pairs
+     */
+    public long unreachablePairs(){
+        return (long) numVertices * (numVertices - 1) - reachablePairs;
+    }
+
+    /**
+     * Returns the number of vertices with each eccentricity
+     * @return an array whose entry e is the number of vertices with eccentricity e, up to the diameter
+     */
+    public int[] eccentricityDistribution(){
+        int[] counts = new int[diameter + 1];
+        for (int e : eccentricity){
+            counts[e]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the largest finite distance from a vertex
+     * @param v a vertex in the graph
+     * @return the eccentricity of v within the part of the graph it can reach
+     */
+    public int eccentricity(int v){
+        return eccentricity[v-1];
+    }
+}
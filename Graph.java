@@ -3,7 +3,8 @@ import java.util.*;
 
 /**
  * this class is an implementation of the GraphIfc interface. It uses
- * a HashMap of vertex keys and list of vertex values.
+ * a HashMap of vertex keys and list of vertex values. Edge weights are kept
+ * in a second HashMap of int arrays parallel to the neighbor lists.
  * @authors Robert Weaver, Kyler Greenway
  * This implementation assumes a directed graph
  * @version 10/6/2021
@@ -11,11 +12,17 @@ import java.util.*;
 public class Graph<V> implements GraphIfc<V>{
 
     HashMap<V, List<V>> graph;
+    HashMap<V, int[]> weights;
+    DegreeIndex<V> degrees;
     int numEdges = 0;
+    boolean weighted = false;
+    int maxWeight = 0;
 
 
     public Graph(){
         this.graph = new HashMap<>();
+        this.weights = new HashMap<>();
+        this.degrees = new DegreeIndex<>();
     }
 
     /**
@@ -39,6 +46,11 @@ public class Graph<V> implements GraphIfc<V>{
      */
     public void clear(){
         this.graph.clear();
+        this.weights.clear();
+        this.degrees.clear();
+        numEdges = 0;
+        weighted = false;
+        maxWeight = 0;
     }
 
     /**
@@ -48,6 +60,8 @@ public class Graph<V> implements GraphIfc<V>{
     public void addVertex(V v){
         if (!this.graph.containsKey(v)) {
             this.graph.put(v, new ArrayList<>());
+            this.weights.put(v, new int[4]);
+            this.degrees.add(v);
         }
     }
 
@@ -59,14 +73,94 @@ public class Graph<V> implements GraphIfc<V>{
      * @throws IllegalArgumentException if either vertex does not occur in the graph.
      */
     public void addEdge(V u, V v){
+        addEdge(u, v, 1);
+    }
+
+    /**
+     * Adds an edge between vertices u and v in the graph with the given weight. If the edge
+     * already exists its weight is replaced.
+     *
+     * @param u A vertex in the graph
+     * @param v A vertex in the graph
+     * @param weight The non-negative weight of the edge
+     * @throws IllegalArgumentException if either vertex does not occur in the graph or the weight is negative
+     */
+    public void addEdge(V u, V v, int weight){
         if(!this.graph.containsKey(u) || !this.graph.containsKey(v)){
             throw new IllegalArgumentException("a vertex did not exist in the graph");
         }
-         if (!edgeExists(u,v)){
-             this.graph.get(u).add(v);
-             numEdges++;
+        if(weight < 0){
+            throw new IllegalArgumentException("edge weights must be non-negative");
         }
+        List<V> neighbors = this.graph.get(u);
+        int index = neighbors.indexOf(v);
+        if (index == -1){
+            index = neighbors.size();
+            neighbors.add(v);
+            numEdges++;
+            this.degrees.increment(u);
+            int[] w = this.weights.get(u);
+            if (index == w.length){ //grow the weight array alongside the neighbor list
+                w = Arrays.copyOf(w, 2 * w.length);
+                this.weights.put(u, w);
+            }
+        }
+        this.weights.get(u)[index] = weight;
+        if (weight != 1){
+            weighted = true;
+        }
+        maxWeight = Math.max(maxWeight, weight);
+    }
 
+    /**
+     * Returns the weight of the edge from v to u. Edges added without a weight have weight 1.
+     * @param v A node in the graph
+     * @param u A node in the graph
+     * @return The weight of the edge
+     * @throws IllegalArgumentException if either vertex does not occur in the graph or the edge does not exist
+     */
+    public int getWeight(V v, V u){
+        if (!this.graph.containsKey(v) || !this.graph.containsKey(u)){
+            throw new IllegalArgumentException("a vertex did not appear in the graph");
+        }
+        int index = this.graph.get(v).indexOf(u);
+        if (index == -1){
+            throw new IllegalArgumentException("the edge did not appear in the graph");
+        }
+        return this.weights.get(v)[index];
+    }
+
+    /**
+     * Returns the edge weights of v, parallel to the list returned by <code>getNeighbors(v)</code>.
+     * Only the first <code>degree(v)</code> entries are meaningful.
+     *
+     * @param v An existing node in the graph
+     * @return The weights of the edges leaving v
+     * @throws IllegalArgumentException if the vertex does not occur in the graph
+     */
+    public int[] getWeights(V v){
+        if(!this.graph.containsKey(v)){
+            throw new IllegalArgumentException("Vertex did not appear in the graph");
+        }
+        return this.weights.get(v);
+    }
+
+    /**
+     * Determines whether any edge in the graph has a weight other than 1.
+     * @return True if the graph has a non-unit edge weight, false otherwise
+     */
+    public boolean isWeighted(){
+        return weighted;
+    }
+
+    /**
+     * Returns the largest weight given to any edge since the graph was created or cleared.
+     * Replacing an edge's weight with a smaller one does not lower it, so it is an upper bound
+     * on the current weights.
+     * @return The largest edge weight, or 0 if the graph has no edges
+     */
+    public int maxWeight(){
+        return maxWeight;
     }
 
     /**
@@ -133,17 +227,43 @@ public class Graph<V> implements GraphIfc<V>{
         return this.graph.get(v).size();
     }
 
+    /**
+     * Returns a vertex of maximum degree. The degree statistics are kept up to date as
+     * edges are added, so this does not scan the graph.
+     * @return A vertex with the largest degree, or null if the graph is empty
+     */
     public V maxDegree(){
-        V maxDegree = null;
-        int mDegree = 0;
-        for(V v : graph.keySet()){
-           if(degree(v)>mDegree){
-               mDegree = degree(v);
-               maxDegree = v;
-           }
-        }
-        return maxDegree;
+        return degrees.maxVertex();
+    }
+
+    /**
+     * Returns the number of vertices with each degree
+     * @return An array whose entry d is the number of vertices of degree d, up to the maximum degree
+     */
+    public int[] degreeHistogram(){
+        return degrees.histogram();
+    }
+
+    /**
+     * Returns the k vertices with the largest degree, in O(k) time
+     * @param k The number of vertices to return
+     * @return Up to k vertices in decreasing order of degree
+     */
+    public List<V> topKByDegree(int k){
+        return degrees.topK(k);
+    }
 
+    /**
+     * Returns the degree at the given percentile, i.e. the smallest degree d such that at
+     * least that percentage of vertices have degree d or less
+     * @param percent A percentage between 0 and 100
+     * @return The degree at the percentile
+     */
+    public int degreePercentile(double percent){
+        if (percent < 0 || percent > 100){
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        return degrees.percentile(percent);
     }
 
     /**
@@ -156,7 +276,7 @@ public class Graph<V> implements GraphIfc<V>{
     }
 
     public static void main(String[] args) {
-        Graph g = new Graph();
+        Graph<Character> g = new Graph<Character>();
 
         System.out.println("Add a Vertex: ");
         g.addVertex('a');
@@ -171,12 +291,19 @@ public class Graph<V> implements GraphIfc<V>{
         g.addEdge('a','d');
         g.addEdge('c','d');
         g.addEdge('d','c'); 
+        g.addEdge('b','d', 5);
         System.out.println(g.toString());
         //g.addEdge('a','e'); // test to see if crashes when adding edge with a vertex that doesn't exist
         System.out.println("Vertices: " + g.getVertices());
         System.out.println("Neighbors To vertex 'a' : " + g.getNeighbors('a'));
         System.out.println("Edge Exist between 'a' and 'b'? : " + g.edgeExists('a', 'b'));
         System.out.println("Degree of vertex 'a' : " + g.degree('a'));
+        System.out.println("Weight of edge 'b' -> 'd' : " + g.getWeight('b', 'd'));
+        System.out.println("Weighted? : " + g.isWeighted());
+        System.out.println("Max degree vertex : " + g.maxDegree());
+        System.out.println("Degree histogram : " + Arrays.toString(g.degreeHistogram()));
+        System.out.println("Top 2 by degree : " + g.topKByDegree(2));
+        System.out.println("Median degree : " + g.degreePercentile(50));
         System.out.println("Vertex 'a' exits? : " + g.containsVertex('a'));
         System.out.println("Num Vertices: " + g.numVertices());
         System.out.println("Num Edges: " + g.numEdges());
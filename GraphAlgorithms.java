@@ -1,10 +1,16 @@
 package graph;
 import data.Movie;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Random;
+import util.BucketQueue;
+import util.DaryHeap;
+import util.IndexedPriorityQueue;
+import util.PairingHeap;
 import util.PriorityQueue;
+import util.RadixHeap;
 
 /**
  * a class that has two methods that implement Floyd Warhsall's algorithm to find the shortest path between
@@ -17,93 +23,322 @@ import util.PriorityQueue;
 public class GraphAlgorithms {
 	// FILL IN
     private static Map<Integer,Movie> movies;
+
+    // an arbitrarily large distance used for unreachable vertices
+    static final int INFINITY = 19999999;
+
+    // the largest edge weight for which Dijkstras algorithm uses a bucket queue, whose pops
+    // scan one bucket per unit of distance; beyond it a radix heap is used
+    static final int BUCKET_QUEUE_MAX_WEIGHT = 1024;
+
+    // breadth first search workspace reused by every search on the same thread
+    private static final ThreadLocal<BreadthFirstPaths> BFS = ThreadLocal.withInitial(() -> new BreadthFirstPaths(1024));
+
+    // Dijkstra workspace reused by every weighted search on the same thread
+    private static final ThreadLocal<DijkstraPaths> DIJKSTRA = ThreadLocal.withInitial(() -> new DijkstraPaths(1024));
+
     /**
-     * an implementation of floyd warshall algorithm that gives the shortest path between all nodes
-     * @param graph the graph that is being searched for shortest paths
+     * an implementation of floyd warshall algorithm that gives the shortest path between all nodes,
+     * counting each edge as length 1. The work is done by BlockedFloydWarshall on a flat array
+     * @param graph the graph that is being searched for shortest paths, with nodes numbered 1...n
      * @return a 2d array of the distances of the shortest paths between all nodes
      */
     public static int[][] floydWarshall(Graph<Integer> graph){
-        Set<Integer> nodes = graph.getVertices();
-        Object index[] = nodes.toArray();
-        int vertices = index.length;
-        int distance[][] = new int [vertices][vertices]; //create a 2d array to track distances between vertices
-
+        int vertices = graph.numVertices();
+        int[] flat = BlockedFloydWarshall.distances(graph, false);
+        int distance[][] = new int [vertices][];
         for (int i = 0; i < vertices; i++){
-            distance[i][i] = 0; //fill the diagonal with weights of 0
-        }
-//
-
-        for(int i = 0; i < vertices; i++){ //for each edge
-            int v = (int) index[i]; //get the vertex at index i
-            for (int j = 0; j < vertices; j++){
-                int u = (int) index[j]; //get the vertex at index j
-                if (graph.edgeExists(v, u)){ //if an edge exists between the two vertices
-                    distance[i][j] = 1; //add the weight to the matrix
-                }
-                else if (i == j){
-                    distance[i][j] = 0;
-                }
-                else{
-                    distance[i][j] = 19999999; //used arbitrarily large value for infinity
-                }
-            }
-        }
-
-        for (int k = 0; k < vertices; k++){
-            for (int i = 0; i < vertices; i++){
-                for (int j = 0; j < vertices; j++){
-
-                    if (distance[i][j] > distance[i][k] + distance[k][j]){ //if the distance is shorter visiting k
-                        distance[i][j] = distance[i][k] + distance[k][j]; //update distance
-                    }
-                }
-            }
+            distance[i] = Arrays.copyOfRange(flat, i * vertices, (i + 1) * vertices); //row i holds the distances from node i+1
         }
         return distance;
     }
 
     /**
      * an implementation of Dijkstras algorithm that finds the shortest path from a starting
-     * source node to all other nodes
+     * source node to all other nodes, using the edge weights of the graph as edge lengths.
+     * If every edge has weight 1 a breadth first search finds the same paths in linear time,
+     * so unweighted graphs are handed to BreadthFirstPaths instead. The analyzer's graphs always
+     * carry link costs and take its hop counts from MultiSourceBfs, so that branch only serves
+     * graphs built without weights. Distances only grow as
+     * nodes are settled, so the queue is a monotone one chosen by monotoneQueue
      * @param graph the graph containing the source node
      * @param source the node to find the shortest paths from
      * @return the list of each node's previous node in the path
      */
     public static int[] dijkstrasAlgorithm(Graph<Integer> graph, int source){
-        PriorityQueue Q = new PriorityQueue();//create priority queue
+        if (!graph.isWeighted()){
+            BreadthFirstPaths bfs = BFS.get();
+            bfs.search(graph, source);
+            return bfs.previousNodes(graph.numVertices());
+        }
+        DijkstraPaths dijkstra = DIJKSTRA.get();
+        dijkstra.search(graph, source);
+        return dijkstra.previousNodes(graph.numVertices());
+    }
+
+    /**
+     * finds a shortest path between two nodes with Dijkstras algorithm, stopping as soon as the
+     * target is settled. The search reuses this thread's workspace, so it costs time for the nodes
+     * closer to the source than the target, not for the whole graph
+     * @param graph the graph, with vertices numbered 1...n
+     * @param source the first node of the path
+     * @param target the last node of the path
+     * @return the nodes along a shortest path from source to target, or an empty list if not connected
+     */
+    public static List<Integer> dijkstraPath(GraphIfc<Integer> graph, int source, int target){
+        DijkstraPaths dijkstra = DIJKSTRA.get();
+        dijkstra.search(graph, source, target, INFINITY);
+        return dijkstra.path(target);
+    }
+
+    /**
+     * finds the length of a shortest path between two nodes, stopping as soon as the target is settled
+     * @param graph the graph, with vertices numbered 1...n
+     * @param source the first node of the path
+     * @param target the last node of the path
+     * @return the sum of the edge weights along the path, or INFINITY if not connected
+     */
+    public static int shortestDistance(GraphIfc<Integer> graph, int source, int target){
+        DijkstraPaths dijkstra = DIJKSTRA.get();
+        dijkstra.search(graph, source, target, INFINITY);
+        return dijkstra.isSettled(target) ? dijkstra.distance(target) : INFINITY;
+    }
+
+    /**
+     * finds every node within a distance of a source, settling no node further away
+     * @param graph the graph, with vertices numbered 1...n
+     * @param source the node to search from
+     * @param bound the largest distance to include
+     * @return the nodes within the bound, including the source, nearest first
+     */
+    public static int[] nodesWithin(GraphIfc<Integer> graph, int source, int bound){
+        DijkstraPaths dijkstra = DIJKSTRA.get();
+        int[] nodes = new int[dijkstra.search(graph, source, 0, bound)];
+        for (int i = 0; i < nodes.length; i++){
+            nodes[i] = dijkstra.settledNode(i);
+        }
+        return nodes;
+    }
+
+    /**
+     * picks a priority queue for Dijkstras algorithm, which only ever pushes priorities no smaller
+     * than the last one popped. With small edge weights every tentative distance lies within the
+     * largest weight of the smallest, so a BucketQueue pops in constant time, as Dial's algorithm
+     * does. Otherwise a RadixHeap needs only a few bucket moves per node whatever the weights
+     * @param maxWeight the largest edge weight, or a negative number if it is not known
+     * @param capacity one more than the largest node
+     * @return an empty queue
+     */
+    static IndexedPriorityQueue monotoneQueue(int maxWeight, int capacity){
+        if (maxWeight >= 0 && maxWeight <= BUCKET_QUEUE_MAX_WEIGHT){
+            return new BucketQueue(maxWeight, capacity);
+        }
+        return new RadixHeap(capacity);
+    }
+
+    /**
+     * Dijkstras algorithm run on a given priority queue, so the heap can be chosen to suit the
+     * graph: a binary PriorityQueue, a DaryHeap, which changes priorities in fewer steps on
+     * dense graphs, or a PairingHeap, which changes them in constant time
+     * @param graph the graph containing the source node, with nodes numbered 1...n
+     * @param source the node to find the shortest paths from
+     * @param Q an empty priority queue, which is left empty
+     * @return the list of each node's previous node in the path
+     */
+    public static int[] dijkstrasAlgorithm(Graph<Integer> graph, int source, IndexedPriorityQueue Q){
         int vertices = graph.numVertices();
         int previous[] = new int[vertices];//create array for previous nodes
         int distance[] = new int[vertices];//create array for shortest path lengths
 
         for (int i = 0; i < distance.length; i++){ //initialize distances to infinity (or arbitrarily large val)
-            distance[i] = 19999999;
+            distance[i] = INFINITY;
         }
         distance[source-1] = 0; //set the distance from source to source as 0
-        for (int movieId : graph.getVertices()){
-            Q.push(distance[movieId-1], movieId); //push movieID (node) and infinite weight
-        }
+        Q.push(0, source); //nodes are pushed when first reached, so priorities never fall below the last popped
         while (!Q.isEmpty()){
             int u = Q.topElement(); //save the top node
             Q.pop(); //remove the node from the queue
             List<Integer> adjList= graph.getNeighbors(u);
-            for (int v : adjList){
-                int alt = distance[u-1] + 1;//alt = distance [u] + 1
+            int[] weights = graph.getWeights(u); //weights[i] is the length of the edge to adjList.get(i)
+            for (int i = 0; i < adjList.size(); i++){
+                int v = adjList.get(i);
+                int alt = distance[u-1] + weights[i];//alt = distance [u] + weight(u, v)
 
                 if (alt < distance[v-1]){//if (alt < distance[v])
                     distance[v-1] = alt;//distance[v] = alt : distance[indexOf(v)] = alt
                     previous[v-1] = u;//previous[v] = u : previous[indexOf(v)] = u
-                    Q.changePriority(alt, v);//Q.changePriority(v, alt)
+                    if (Q.isPresent(v)){
+                        Q.changePriority(alt, v);//Q.changePriority(v, alt)
+                    }
+                    else{
+                        Q.push(alt, v);
+                    }
                 }
             }
         }
         return previous;
     }
 
+    /**
+     * a breadth first search that finds the number of edges on the shortest path from a source
+     * node to every other node. Works on any graph whose vertices are numbered 1...n
+     * @param graph the graph containing the source node
+     * @param source the node to search from
+     * @return the hop distance to each node, indexed by node-1, or INFINITY if unreachable
+     */
+    public static int[] breadthFirstSearch(GraphIfc<Integer> graph, int source){
+        BreadthFirstPaths bfs = BFS.get();
+        bfs.search(graph, source);
+        return bfs.distances(graph.numVertices());
+    }
+
+    /**
+     * a breadth first search over a compressed graph that streams each neighbor list through
+     * one reused cursor instead of decoding it into a list
+     * @param graph the compressed graph containing the source node
+     * @param source the node to search from
+     * @return the hop distance to each node, indexed by node-1, or INFINITY if unreachable
+     */
+    public static int[] breadthFirstSearch(CompressedGraph graph, int source){
+        BreadthFirstPaths bfs = BFS.get();
+        bfs.search(graph, source);
+        return bfs.distances(graph.numVertices());
+    }
+
+    /**
+     * a breadth first search over the adjacency arrays of a compact graph
+     * @param graph the compact graph containing the source node
+     * @param source the node to search from
+     * @return the hop distance to each node, indexed by node-1, or INFINITY if unreachable
+     */
+    public static int[] breadthFirstSearch(CompactGraph graph, int source){
+        BreadthFirstPaths bfs = BFS.get();
+        bfs.search(graph, source);
+        return bfs.distances(graph.numVertices());
+    }
+
+    /**
+     * Returns the vertices with the highest scores
+     * @param scores scores indexed by vertex-1
+     * @param k the number of vertices to return
+     * @return up to k vertices, highest score first
+     */
+    public static int[] topK(double[] scores, int k){
+        // a min-heap of the best k seen so far, so its root is the one to replace
+        java.util.PriorityQueue<Integer> best = new java.util.PriorityQueue<>(Math.max(1, k),
+                (a, b) -> Double.compare(scores[a-1], scores[b-1]));
+        for (int v = 1; v <= scores.length && k > 0; v++){
+            if (best.size() < k){
+                best.add(v);
+            }
+            else if (scores[v-1] > scores[best.peek()-1]){
+                best.poll();
+                best.add(v);
+            }
+        }
+        int[] top = new int[best.size()];
+        for (int i = top.length - 1; i >= 0; i--){
+            top[i] = best.poll();
+        }
+        return top;
+    }
+
     public void getMovieMap(Map <Integer, Movie> movies){
         this.movies = movies;
     }
 
-    public static void main (String[] args){
+    /**
+     * Adds up the lengths of the paths in a shortest path tree, following each node's previous
+     * nodes back until a node whose length is known
+     */
+    private static long totalDistance(Graph<Integer> graph, int[] previous){
+        long[] distance = new long[previous.length];
+        Arrays.fill(distance, -1);
+        long total = 0;
+        for (int v = 1; v <= previous.length; v++){
+            int top = v;
+            while (distance[top-1] < 0 && previous[top-1] != 0){
+                top = previous[top-1];
+            }
+            if (distance[top-1] < 0){
+                distance[top-1] = 0; // the source, or a node that was never reached
+            }
+            // walk back down the chain filling in lengths from the known node
+            while (distance[v-1] < 0){
+                int u = v;
+                while (distance[previous[u-1]-1] < 0){
+                    u = previous[u-1];
+                }
+                distance[u-1] = distance[previous[u-1]-1] + graph.getWeight(previous[u-1], u);
+            }
+            total += distance[v-1];
+        }
+        return total;
+    }
 
+    /**
+     * Times Dijkstras algorithm with each priority queue on random weighted graphs with sparse,
+     * dense and skewed degree distributions, checking that every queue finds the same distances.
+     * Usage: java graph.GraphAlgorithms [vertices] [sources]
+     */
+    public static void main (String[] args){
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int sources = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String[] names = {"binary heap", "4-ary heap", "8-ary heap", "pairing heap", "radix heap", "bucket queue"};
+        String[] shapes = {"sparse", "dense", "skewed"};
+        int[] degrees = {8, 200, 40};
+        for (int s = 0; s < shapes.length; s++){
+            Random random = new Random(361);
+            Graph<Integer> graph = new Graph<>();
+            for (int v = 1; v <= n; v++){
+                graph.addVertex(v);
+            }
+            for (int v = 1; v <= n; v++){
+                for (int i = 0; i < degrees[s]; i++){
+                    // the skewed graph draws its endpoints mostly from the low numbered vertices
+                    int u = s == 2 ? 1 + (int) (n * Math.pow(random.nextDouble(), 3)) : 1 + random.nextInt(n);
+                    graph.addEdge(v, u, 1 + random.nextInt(100));
+                }
+            }
+            System.out.printf("%s: %d vertices, %d edges, max degree %d%n", shapes[s], n, graph.numEdges(), graph.degree(graph.maxDegree()));
+            IndexedPriorityQueue[] queues = {new PriorityQueue(n + 1), new DaryHeap(4, n + 1), new DaryHeap(8, n + 1),
+                    new PairingHeap(n + 1), new RadixHeap(n + 1), new BucketQueue(graph.maxWeight(), n + 1)};
+            for (IndexedPriorityQueue queue : queues){
+                for (int source = 1; source <= sources; source++){ // warm up
+                    dijkstrasAlgorithm(graph, source, queue);
+                }
+            }
+            for (int source = 1; source <= sources; source++){
+                breadthFirstSearch(graph, source);
+            }
+            long start = System.nanoTime();
+            for (int source = 1; source <= sources; source++){
+                breadthFirstSearch(graph, source);
+            }
+            System.out.printf("  %-12s %8.2f ms per search, ignoring weights%n", "bfs", (System.nanoTime() - start) / 1e6 / sources);
+            long[] total = new long[queues.length];
+            for (int q = 0; q < queues.length; q++){
+                start = System.nanoTime();
+                for (int source = 1; source <= sources; source++){
+                    dijkstrasAlgorithm(graph, source, queues[q]);
+                }
+                System.out.printf("  %-12s %8.2f ms per search%n", names[q], (System.nanoTime() - start) / 1e6 / sources);
+                total[q] = totalDistance(graph, dijkstrasAlgorithm(graph, 1, queues[q]));
+            }
+            for (int source = 1; source <= sources; source++){
+                dijkstraPath(graph, source, source % n + 1);
+            }
+            Random targets = new Random(1);
+            start = System.nanoTime();
+            for (int source = 1; source <= sources; source++){
+                dijkstraPath(graph, source, 1 + targets.nextInt(n));
+            }
+            System.out.printf("  %-12s %8.2f ms per search, stopping at a random target%n", "lazy", (System.nanoTime() - start) / 1e6 / sources);
+            for (int q = 1; q < queues.length; q++){
+                if (total[q] != total[0]){
+                    System.out.println("  " + names[q] + " found different shortest paths");
+                }
+            }
+        }
     }
 }
@@ -41,6 +41,44 @@ public interface GraphIfc<V> {
 	 */
 	public void addEdge(V u, V v);	
 
+	/**
+	 * Adds an edge between vertices u and v in the graph with the given weight. If the edge
+	 * already exists its weight is replaced. Weights are used as edge lengths by the shortest
+	 * path algorithms, so a smaller weight means a closer pair of vertices.
+	 *
+	 * @param u A vertex in the graph
+	 * @param v A vertex in the graph
+	 * @param weight The non-negative weight of the edge
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph or the weight is negative
+	 */
+	public void addEdge(V u, V v, int weight);
+
+	/**
+	 * Returns the weight of the edge from v to u. Edges added without a weight have weight 1.
+	 * @param v A node in the graph
+	 * @param u A node in the graph
+	 * @return The weight of the edge
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph or the edge does not exist
+	 */
+	public int getWeight(V v, V u);
+
+	/**
+	 * Returns the edge weights of v, parallel to the list returned by <code>getNeighbors(v)</code>:
+	 * the i-th entry is the weight of the edge to the i-th neighbor. Only the first
+	 * <code>degree(v)</code> entries are meaningful.
+	 *
+	 * @param v An existing node in the graph
+	 * @return The weights of the edges leaving v
+	 * @throws IllegalArgumentException if the vertex does not occur in the graph
+	 */
+	public int[] getWeights(V v);
+
+	/**
+	 * Determines whether any edge in the graph has a weight other than 1.
+	 * @return True if the graph has a non-unit edge weight, false otherwise
+	 */
+	public boolean isWeighted();
+
 	/**
 	 * Returns the set of all vertices in the graph.
 	 * @return A set containing all vertices in the graph
@@ -0,0 +1,72 @@
+package util;
+
+/**
+ * A min priority queue of distinct non-negative int elements, each with a non-negative int
+ * priority, that can find any element it holds to change its priority. Dijkstra's algorithm
+ * is written against this interface so that the heap behind it can be chosen to suit the graph.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public interface IndexedPriorityQueue {
+
+	/**
+	 *  Insert a new element into the queue with the given priority.
+	 *	@param priority priority of element to be inserted
+	 *	@param element element to be inserted, not already in the queue
+	 */
+	public void push(int priority, int element);
+
+	/**
+	 *  Remove the highest priority element; the queue must be non-empty
+	 */
+	public void pop();
+
+	/**
+	 *  Returns the highest priority in the queue; the queue must be non-empty
+	 *  @return highest priority value
+	 */
+	public int topPriority();
+
+	/**
+	 *  Returns the element with the highest priority; the queue must be non-empty
+	 *  @return element with highest priority
+	 */
+	public int topElement();
+
+	/**
+	 *  Change the priority of an element already in the priority queue.
+	 *  @param newpriority the new priority
+	 *  @param element element whose priority is to be changed
+	 */
+	public void changePriority(int newpriority, int element);
+
+	/**
+	 *  Gets the priority of an element in the queue
+	 *  @param element the element whose priority is returned
+	 *  @return the priority value
+	 */
+	public int getPriority(int element);
+
+	/**
+	 *  Returns true if the priority queue contains no elements
+	 *  @return true if the queue contains no elements, false otherwise
+	 */
+	public boolean isEmpty();
+
+	/**
+	 *  Returns true if the element exists in the priority queue.
+	 *  @return true if the element exists, false otherwise
+	 */
+	public boolean isPresent(int element);
+
+	/**
+	 *  Removes all elements from the priority queue
+	 */
+	public void clear();
+
+	/**
+	 *  Returns the number of elements in the priority queue
+	 *  @return number of elements in the priority queue
+	 */
+	public int size();
+}
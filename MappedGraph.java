@@ -0,0 +1,434 @@
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only implementation of the GraphIfc interface that serves a graph file directly
+ * from memory-mapped pages. Nothing about the adjacency is copied onto the heap, so several
+ * processes opening the same file share the page cache and the garbage collector never
+ * scans the edges.
+ *
+ * Vertices are the integers 1...n, the same numbering DataLoader gives movies. The file
+ * layout, all values big-endian, is
+ * <ul>
+ * <li> header: magic, version, flags (bit 0 set if weighted), n (ints) then m (long), padded to 32 bytes</li>
+ * <li> offsets: n+1 longs, the edges of vertex v are the entries offsets[v-1] up to offsets[v]</li>
+ * <li> targets: m ints, each vertex's neighbors sorted in increasing order</li>
+ * <li> weights: m ints parallel to targets, padded to start on an 8 byte boundary (only if weighted)</li>
+ * </ul>
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class MappedGraph implements GraphIfc<Integer> {
+
+    static final int MAGIC = 0x4D4C4752; // "MLGR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    // each mapped region is at most 2^30 bytes; sections are 8 byte aligned so no value straddles two regions
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final MappedByteBuffer[] chunks;
+    private final int numVertices;
+    private final long numEdges;
+    private final boolean weighted;
+    private final long offsetsStart;
+    private final long targetsStart;
+    private final long weightsStart;
+
+    private MappedGraph(MappedByteBuffer[] chunks){
+        this.chunks = chunks;
+        if (readInt(0) != MAGIC || readInt(4) != VERSION){
+            throw new IllegalArgumentException("not a graph file");
+        }
+        this.weighted = (readInt(8) & 1) != 0;
+        this.numVertices = readInt(12);
+        this.numEdges = readLong(16);
+        this.offsetsStart = HEADER_BYTES;
+        this.targetsStart = offsetsStart + 8L * (numVertices + 1);
+        this.weightsStart = align(targetsStart + 4L * numEdges);
+    }
+
+    /**
+     * Maps a graph file written by <code>write</code> into memory. Only the page tables are set up,
+     * so opening is immediate regardless of the size of the file.
+     * @param filename the graph file
+     * @return a read-only view of the graph
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a graph file
+     */
+    public static MappedGraph open(String filename) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()){
+            long size = channel.size();
+            if (size < HEADER_BYTES){
+                throw new IllegalArgumentException("not a graph file");
+            }
+            int count = (int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++){
+                long start = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_MASK + 1, size - start));
+            }
+            return new MappedGraph(chunks); // the mapping stays valid after the channel is closed
+        }
+    }
+
+    /**
+     * Writes a graph in the file format read by <code>open</code>. The vertices of the graph
+     * must be exactly the integers 1...n.
+     * @param graph the graph to be written
+     * @param filename the file to be written
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the vertices are not numbered 1...n
+     */
+    public static void write(GraphIfc<Integer> graph, String filename) throws IOException {
+        int n = graph.numVertices();
+        for (int v = 1; v <= n; v++){
+            if (!graph.containsVertex(v)){
+                throw new IllegalArgumentException("vertices must be numbered 1 to " + n);
+            }
+        }
+        long m = 0;
+        for (int v = 1; v <= n; v++){
+            m += graph.degree(v);
+        }
+        boolean weighted = graph.isWeighted();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(weighted ? 1 : 0);
+            out.writeInt(n);
+            out.writeLong(m);
+            out.writeLong(0); // reserved
+
+            long offset = 0;
+            out.writeLong(offset);
+            for (int v = 1; v <= n; v++){
+                offset += graph.degree(v);
+                out.writeLong(offset);
+            }
+
+            // sort each neighbor list (keeping weights alongside) so edgeExists can binary search
+            long[][] sorted = new long[n][];
+            for (int v = 1; v <= n; v++){
+                List<Integer> neighbors = graph.getNeighbors(v);
+                int[] weights = graph.getWeights(v);
+                long[] edges = new long[neighbors.size()];
+                for (int i = 0; i < edges.length; i++){
+                    edges[i] = ((long) neighbors.get(i) << 32) | (weights[i] & 0xFFFFFFFFL);
+                }
+                Arrays.sort(edges);
+                sorted[v-1] = edges;
+                for (long edge : edges){
+                    out.writeInt((int) (edge >>> 32));
+                }
+            }
+            if (weighted){
+                long position = HEADER_BYTES + 8L * (n + 1) + 4L * m;
+                for (long pad = position; pad < align(position); pad += 4){
+                    out.writeInt(0);
+                }
+                for (long[] edges : sorted){
+                    for (long edge : edges){
+                        out.writeInt((int) edge);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of vertices in the graph
+     * @return The number of vertices in the graph
+     */
+    public int numVertices(){
+        return numVertices;
+    }
+
+    /**
+     * Returns the number of edges in the graph
+     * @return The number of edges in the graph
+     */
+    public int numEdges(){
+        return (int) Math.min(numEdges, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void clear(){
+        throw new UnsupportedOperationException("a mapped graph is read-only");
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void addVertex(Integer v){
+        throw new UnsupportedOperationException("a mapped graph is read-only");
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void addEdge(Integer u, Integer v){
+        throw new UnsupportedOperationException("a mapped graph is read-only");
+    }
+
+    /**
+     * Not supported, the graph is read-only
+     * @throws UnsupportedOperationException always
+     */
+    public void addEdge(Integer u, Integer v, int weight){
+        throw new UnsupportedOperationException("a mapped graph is read-only");
+    }
+
+    /**
+     * Returns the set of all vertices in the graph, the integers 1...n.
+     * @return A set containing all vertices in the graph
+     */
+    public Set<Integer> getVertices(){
+        return new AbstractSet<Integer>(){
+            public Iterator<Integer> iterator(){
+                return new Iterator<Integer>(){
+                    int next = 1;
+                    public boolean hasNext(){
+                        return next <= numVertices;
+                    }
+                    public Integer next(){
+                        if (next > numVertices){
+                            throw new NoSuchElementException();
+                        }
+                        return next++;
+                    }
+                };
+            }
+            public int size(){
+                return numVertices;
+            }
+            public boolean contains(Object o){
+                return o instanceof Integer && containsVertex((Integer) o);
+            }
+        };
+    }
+
+    /**
+     * Returns the neighbors of v in increasing order. The list is a view onto the mapped file.
+     *
+     * @param v An existing node in the graph
+     * @return All neighbors of v in the graph.
+     * @throws IllegalArgumentException if the vertex does not occur in the graph
+     */
+    public List<Integer> getNeighbors(Integer v){
+        checkVertex(v);
+        final long start = edgeStart(v);
+        final int size = (int) (edgeStart(v + 1) - start);
+        return new AbstractList<Integer>(){
+            public Integer get(int i){
+                if (i < 0 || i >= size){
+                    throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+                }
+                return target(start + i);
+            }
+            public int size(){
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Determines whether the given vertex is in the graph, i.e. lies between 1 and n.
+     *
+     * @param v The vertex to be tested.
+     * @return True if v exists in the graph, false otherwise.
+     */
+    public boolean containsVertex(Integer v){
+        return v != null && v >= 1 && v <= numVertices;
+    }
+
+    /**
+     * Determines whether an edge exists from v to u by binary searching the sorted neighbors of v.
+     * @param v A node in the graph
+     * @param u A node in the graph
+     * @return True if an edge exists between the two vertices
+     * @throws IllegalArgumentException if either vertex does not occur in the graph
+     */
+    public boolean edgeExists(Integer v, Integer u){
+        checkVertex(v);
+        checkVertex(u);
+        return find(v, u) >= 0;
+    }
+
+    /**
+     * Returns the weight of the edge from v to u.
+     * @param v A node in the graph
+     * @param u A node in the graph
+     * @return The weight of the edge
+     * @throws IllegalArgumentException if either vertex does not occur in the graph or the edge does not exist
+     */
+    public int getWeight(Integer v, Integer u){
+        checkVertex(v);
+        checkVertex(u);
+        long edge = find(v, u);
+        if (edge < 0){
+            throw new IllegalArgumentException("the edge did not appear in the graph");
+        }
+        return weight(edge);
+    }
+
+    /**
+     * Returns the edge weights of v, parallel to <code>getNeighbors(v)</code>. Unlike the rest of
+     * the graph this copies the weights onto the heap.
+     * @param v An existing node in the graph
+     * @return The weights of the edges leaving v
+     * @throws IllegalArgumentException if the vertex does not occur in the graph
+     */
+    public int[] getWeights(Integer v){
+        checkVertex(v);
+        long start = edgeStart(v);
+        int[] weights = new int[(int) (edgeStart(v + 1) - start)];
+        for (int i = 0; i < weights.length; i++){
+            weights[i] = weight(start + i);
+        }
+        return weights;
+    }
+
+    /**
+     * Determines whether the file was written from a weighted graph.
+     * @return True if the graph has a non-unit edge weight, false otherwise
+     */
+    public boolean isWeighted(){
+        return weighted;
+    }
+
+    /**
+     * Returns the degree of the vertex. This is read straight from the offsets.
+     * @param v A vertex in the graph
+     * @return The degree of the vertex
+     * @throws IllegalArgumentException if the vertex does not occur in the graph
+     */
+    public int degree(Integer v){
+        checkVertex(v);
+        return (int) (edgeStart(v + 1) - edgeStart(v));
+    }
+
+    /**
+     * Returns the index into the targets section of the first edge of v, for v in 1...n+1
+     * @param v a vertex, or n+1 for the end of the last vertex's edges
+     * @return the index of the first edge of v
+     */
+    long edgeStart(int v){
+        return readLong(offsetsStart + 8L * (v - 1));
+    }
+
+    /**
+     * Returns the endpoint of the given edge
+     * @param edge an index into the targets section
+     * @return the vertex the edge points to
+     */
+    int target(long edge){
+        return readInt(targetsStart + 4L * edge);
+    }
+
+    /**
+     * Returns the weight of the given edge
+     * @param edge an index into the targets section
+     * @return the weight of the edge, 1 if the file is unweighted
+     */
+    int weight(long edge){
+        return weighted ? readInt(weightsStart + 4L * edge) : 1;
+    }
+
+    /**
+     * Returns a string representation of the graph in the same form as Graph.
+     * @return A string representation of the graph
+     */
+    public String toString(){
+        StringBuilder str = new StringBuilder("{");
+        for (int v = 1; v <= numVertices; v++){
+            if (v > 1){
+                str.append(", ");
+            }
+            str.append(v).append('=').append(getNeighbors(v));
+        }
+        return str.append('}').toString();
+    }
+
+    private long find(int v, int u){
+        long low = edgeStart(v);
+        long high = edgeStart(v + 1) - 1;
+        while (low <= high){
+            long mid = (low + high) >>> 1;
+            int t = target(mid);
+            if (t < u){
+                low = mid + 1;
+            }
+            else if (t > u){
+                high = mid - 1;
+            }
+            else{
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private void checkVertex(Integer v){
+        if (!containsVertex(v)){
+            throw new IllegalArgumentException("Vertex did not appear in the graph");
+        }
+    }
+
+    private int readInt(long position){
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getInt((int) (position & CHUNK_MASK));
+    }
+
+    private long readLong(long position){
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getLong((int) (position & CHUNK_MASK));
+    }
+
+    private static long align(long position){
+        return (position + 7) & ~7L;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Graph<Integer> g = new Graph<>();
+        for (int v = 1; v <= 4; v++){
+            g.addVertex(v);
+        }
+        g.addEdge(1, 3);
+        g.addEdge(1, 2, 4);
+        g.addEdge(2, 3);
+        g.addEdge(3, 4, 2);
+        g.addEdge(4, 1);
+
+        String filename = System.getProperty("java.io.tmpdir") + "/graph_demo.bin";
+        MappedGraph.write(g, filename);
+        MappedGraph mapped = MappedGraph.open(filename);
+        System.out.println(mapped);
+        System.out.println("Vertices: " + mapped.getVertices());
+        System.out.println("Neighbors To vertex 1 : " + mapped.getNeighbors(1));
+        System.out.println("Weight of edge 1 -> 2 : " + mapped.getWeight(1, 2));
+        System.out.println("Edge Exist between 4 and 2? : " + mapped.edgeExists(4, 2));
+        System.out.println("Num Vertices: " + mapped.numVertices());
+        System.out.println("Num Edges: " + mapped.numEdges());
+    }
+}
@@ -1,4 +1,5 @@
 package data;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -15,6 +16,11 @@ public class Movie {
 	private String title;	
 	private Map<Integer, Double> ratings;
 	private Set<String> genres;	
+	private RatingStats stats = new RatingStats();
+
+	// the reviewer ids in increasing order with their ratings; built when first asked for
+	// and dropped when a rating is added
+	private SortedRatings sorted;
 	
 	/**
 	 * Constructs a new movie with the given information
@@ -39,7 +45,12 @@ public class Movie {
 		if(userId < 0 || rating < 0){
 			throw new AssertionError("Inputs must be positive.");
 		}
-		ratings.put(userId, rating);
+		Double old = ratings.put(userId, rating);
+		if(old != null){ // a user rating the movie again replaces the earlier rating
+			stats.remove(old, ratings.values());
+		}
+		stats.add(rating);
+		sorted = null;
 	}
 	
 	public void addGenre(String genre) {
@@ -80,6 +91,23 @@ public class Movie {
 		return ratings.size();
 	}
 	
+	/**
+	 * Returns the mean of the movie's ratings
+	 * @return The mean rating, or 0 if the movie has no ratings
+	 */
+	public double getMeanRating(){
+		return stats.getMean();
+	}
+
+	/**
+	 * Returns the running aggregates of the movie's ratings: count, sum, mean,
+	 * variance, range and histogram by half star
+	 * @return The aggregates, kept up to date as ratings are added
+	 */
+	public RatingStats getRatingStats(){
+		return stats;
+	}
+
 	/**
 	 * Returns a map view of the ratings
 	 * @return A map from the rating to the frequency of that rating 
@@ -88,6 +116,43 @@ public class Movie {
 		return ratings;
 	}
 	
+	/**
+	 * Returns the ids of the users who rated the movie in increasing order, with their ratings
+	 * in the same order, so that the reviewers two movies share can be found by merging. Both
+	 * arrays come from one snapshot of the ratings, so they always line up. They are shared and
+	 * must not be changed
+	 * @return The sorted user ids and their ratings
+	 */
+	synchronized SortedRatings getSortedRatings(){
+		if(sorted == null){
+			int[] ids = new int[ratings.size()];
+			int i = 0;
+			for(int userId : ratings.keySet()){
+				ids[i++] = userId;
+			}
+			Arrays.sort(ids);
+			double[] values = new double[ids.length];
+			for(i = 0; i < ids.length; i++){
+				values[i] = ratings.get(ids[i]);
+			}
+			sorted = new SortedRatings(ids, values);
+		}
+		return sorted;
+	}
+
+	/**
+	 * The reviewers of a movie in increasing order of id and their ratings, at the same positions
+	 */
+	static final class SortedRatings {
+		final int[] reviewers;
+		final double[] ratings;
+
+		SortedRatings(int[] reviewers, double[] ratings){
+			this.reviewers = reviewers;
+			this.ratings = ratings;
+		}
+	}
+
 	/**
 	 * Set the year of the movie
 	 * @param year The year the movie was released
@@ -136,6 +201,7 @@ public class Movie {
 	public String toString(){
 		String str = "("+ movieId + ") " + title + "\n";
 		str += "Num Ratings: " + ratings.size() + "\n";
+		str += "Ratings: " + stats + "\n";
 		str += "Genres: ";
 		for(String genre : genres) {
 			str += genre + " ";
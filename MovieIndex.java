@@ -0,0 +1,354 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+import util.DataLoader;
+
+/**
+ * Ranked indices over the movie catalog for filtered top-N queries, such as the highest rated
+ * Dramas with at least 50 ratings or the most rated movies of 1995.
+ *
+ * When the index is built, every movie's number of ratings, mean rating and Bayesian score are
+ * kept in primitive arrays. The Bayesian score is the mean of the movie's ratings together
+ * with PRIOR_WEIGHT ratings at the catalog mean, so a movie with few ratings cannot outrank
+ * well-known ones on a handful of perfect scores. For each of the three measures the movie ids
+ * are sorted once, best first, and split into one run per genre and one per year, keeping the
+ * order. A query walks the runs that cover its filter, merged by a heap with one entry per run,
+ * and stops after n matches. Most queries only look at a few entries past the n they return.
+ *
+ * Movies are numbered 1...n, as DataLoader numbers them. Queries may be made from several
+ * threads at once.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class MovieIndex {
+
+	// the measures a query can rank movies by
+	public static final int BY_COUNT = 0;
+	public static final int BY_MEAN = 1;
+	public static final int BY_SCORE = 2;
+	private static final int MEASURES = 3;
+
+	// the number of ratings at the catalog mean added to every movie's ratings for its score
+	private static final double PRIOR_WEIGHT = 25;
+
+	private final int numMovies;
+	private final double[][] value;  // indexed by measure, then movie-1
+	private final int[] year;        // indexed by movie-1, -1 if unknown
+	private final long[] genreBits;  // indexed by movie-1, one bit per genre
+
+	private final Map<String, Integer> genreIndex = new HashMap<>(); // keyed by lower case name
+	private final List<String> genreNames = new ArrayList<>();
+	private final int minYear;
+	private final int maxYear;
+
+	private final int[][] all;       // indexed by measure; every movie, best first
+	private final int[][][] byGenre; // indexed by measure, then genre
+	private final int[][][] byYear;  // indexed by measure, then year-minYear
+
+	/**
+	 * Builds the index over every movie
+	 * @param movies the movies, keyed by ids numbered 1...n
+	 * @throws IllegalArgumentException if the movies have more than 64 different genres
+	 */
+	public MovieIndex(Map<Integer, Movie> movies){
+		numMovies = movies.size();
+		value = new double[MEASURES][numMovies];
+		year = new int[numMovies];
+		genreBits = new long[numMovies];
+
+		long totalCount = 0;
+		double totalSum = 0;
+		double[] sum = new double[numMovies];
+		int lowYear = Integer.MAX_VALUE, highYear = Integer.MIN_VALUE;
+		for(int m = 1; m <= numMovies; m++){
+			Movie movie = movies.get(m);
+			sum[m-1] = movie.getRatingStats().getSum();
+			int count = movie.getRatingStats().getCount();
+			value[BY_COUNT][m-1] = count;
+			value[BY_MEAN][m-1] = movie.getMeanRating();
+			totalCount += count;
+			totalSum += sum[m-1];
+
+			year[m-1] = movie.getYear();
+			if(year[m-1] >= 0){
+				lowYear = Math.min(lowYear, year[m-1]);
+				highYear = Math.max(highYear, year[m-1]);
+			}
+			for(String genre : movie.getGenres()){
+				Integer g = genreIndex.get(genre.toLowerCase(Locale.ROOT));
+				if(g == null){
+					if(genreNames.size() == Long.SIZE){
+						throw new IllegalArgumentException("more than " + Long.SIZE + " genres");
+					}
+					g = genreNames.size();
+					genreIndex.put(genre.toLowerCase(Locale.ROOT), g);
+					genreNames.add(genre);
+				}
+				genreBits[m-1] |= 1L << g;
+			}
+		}
+		double catalogMean = totalCount == 0 ? 0 : totalSum / totalCount;
+		for(int m = 1; m <= numMovies; m++){
+			value[BY_SCORE][m-1] = (PRIOR_WEIGHT * catalogMean + sum[m-1]) / (PRIOR_WEIGHT + value[BY_COUNT][m-1]);
+		}
+		minYear = lowYear > highYear ? 0 : lowYear;
+		maxYear = lowYear > highYear ? -1 : highYear;
+
+		all = new int[MEASURES][];
+		byGenre = new int[MEASURES][][];
+		byYear = new int[MEASURES][][];
+		int numGenres = genreNames.size();
+		int numYears = maxYear - minYear + 1;
+		for(int measure = 0; measure < MEASURES; measure++){
+			double[] v = value[measure];
+			all[measure] = IntStream.rangeClosed(1, numMovies).boxed()
+					.sorted((a, b) -> before(v, a, b) ? -1 : before(v, b, a) ? 1 : 0)
+					.mapToInt(Integer::intValue).toArray();
+
+			// split the sorted ids into runs, which keep their order
+			int[] genreSize = new int[numGenres];
+			int[] yearSize = new int[numYears];
+			for(int m = 1; m <= numMovies; m++){
+				for(long bits = genreBits[m-1]; bits != 0; bits &= bits - 1){
+					genreSize[Long.numberOfTrailingZeros(bits)]++;
+				}
+				if(year[m-1] >= 0){
+					yearSize[year[m-1] - minYear]++;
+				}
+			}
+			byGenre[measure] = new int[numGenres][];
+			for(int g = 0; g < numGenres; g++){
+				byGenre[measure][g] = new int[genreSize[g]];
+			}
+			byYear[measure] = new int[numYears][];
+			for(int y = 0; y < numYears; y++){
+				byYear[measure][y] = new int[yearSize[y]];
+			}
+			int[] genreFilled = new int[numGenres];
+			int[] yearFilled = new int[numYears];
+			for(int m : all[measure]){
+				for(long bits = genreBits[m-1]; bits != 0; bits &= bits - 1){
+					int g = Long.numberOfTrailingZeros(bits);
+					byGenre[measure][g][genreFilled[g]++] = m;
+				}
+				if(year[m-1] >= 0){
+					int y = year[m-1] - minYear;
+					byYear[measure][y][yearFilled[y]++] = m;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of ratings of a movie
+	 * @param movieId the movie
+	 * @return its number of ratings
+	 */
+	public int count(int movieId){
+		return (int) value[BY_COUNT][movieId-1];
+	}
+
+	/**
+	 * Returns the mean rating of a movie
+	 * @param movieId the movie
+	 * @return its mean rating, or 0 if it has no ratings
+	 */
+	public double mean(int movieId){
+		return value[BY_MEAN][movieId-1];
+	}
+
+	/**
+	 * Returns the Bayesian score of a movie: its mean rating pulled towards the catalog mean
+	 * by PRIOR_WEIGHT ratings
+	 * @param movieId the movie
+	 * @return its score
+	 */
+	public double score(int movieId){
+		return value[BY_SCORE][movieId-1];
+	}
+
+	/**
+	 * Returns the genres of the catalog
+	 * @return the genre names, in the order they were first seen
+	 */
+	public List<String> genres(){
+		return Collections.unmodifiableList(genreNames);
+	}
+
+	/**
+	 * Returns the best movies of the whole catalog by a measure
+	 * @param measure BY_COUNT, BY_MEAN or BY_SCORE
+	 * @param n the most movies to return
+	 * @param minCount the fewest ratings a movie may have
+	 * @return up to n movie ids, best first
+	 */
+	public int[] top(int measure, int n, int minCount){
+		return top(measure, n, null, Integer.MIN_VALUE, Integer.MAX_VALUE, minCount);
+	}
+
+	/**
+	 * Returns the best movies by a measure among those of a genre and a range of years. Movies of
+	 * unknown year are left out as soon as either end of the range is limited
+	 * @param measure BY_COUNT, BY_MEAN or BY_SCORE
+	 * @param n the most movies to return
+	 * @param genre the genre the movies must have, in any case, or null for any genre
+	 * @param fromYear the earliest year, or Integer.MIN_VALUE for no limit
+	 * @param toYear the latest year, or Integer.MAX_VALUE for no limit
+	 * @param minCount the fewest ratings a movie may have
+	 * @return up to n movie ids, best first
+	 * @throws IllegalArgumentException if the measure is not one of the three
+	 */
+	public int[] top(int measure, int n, String genre, int fromYear, int toYear, int minCount){
+		if(measure < 0 || measure >= MEASURES){
+			throw new IllegalArgumentException("unknown measure " + measure);
+		}
+		long genreMask = 0;
+		int genreSize = numMovies;
+		Integer g = null;
+		if(genre != null){
+			g = genreIndex.get(genre.toLowerCase(Locale.ROOT));
+			if(g == null){
+				return new int[0];
+			}
+			genreMask = 1L << g;
+			genreSize = byGenre[measure][g].length;
+		}
+		if(fromYear != Integer.MIN_VALUE || toYear != Integer.MAX_VALUE){
+			fromYear = Math.max(fromYear, 0); //a limited range never matches an unknown year, stored as -1
+		}
+		// the year runs leave out movies of unknown year, so they serve only ranges that do too
+		int firstYear = Math.max(fromYear, minYear);
+		int lastYear = Math.min(toYear, maxYear);
+		int yearSize = 0;
+		for(int y = firstYear; y <= lastYear; y++){
+			yearSize += byYear[measure][y - minYear].length;
+		}
+
+		int[][] runs;
+		if(fromYear >= 0 && yearSize <= genreSize){
+			runs = new int[Math.max(0, lastYear - firstYear + 1)][];
+			for(int y = firstYear; y <= lastYear; y++){
+				runs[y - firstYear] = byYear[measure][y - minYear];
+			}
+		}
+		else if(g != null){
+			runs = new int[][] {byGenre[measure][g]};
+		}
+		else{
+			runs = new int[][] {all[measure]};
+		}
+		return merge(runs, value[measure], n, genreMask, fromYear, toYear, minCount);
+	}
+
+	/**
+	 * Walks sorted runs best first, with a heap of the runs keyed by the movie each is at,
+	 * collecting the first n movies that pass the filters
+	 */
+	private int[] merge(int[][] runs, double[] v, int n, long genreMask, int fromYear, int toYear, int minCount){
+		int[] heap = new int[runs.length];     // run numbers
+		int[] position = new int[runs.length]; // indexed by run; the next entry to look at
+		int size = 0;
+		for(int r = 0; r < runs.length; r++){
+			if(runs[r].length > 0){
+				siftUp(heap, size++, r, runs, position, v);
+			}
+		}
+		int[] found = new int[Math.max(0, Math.min(n, numMovies))];
+		int count = 0;
+		while(size > 0 && count < found.length){
+			int r = heap[0];
+			int m = runs[r][position[r]++];
+			if((genreBits[m-1] & genreMask) == genreMask && year[m-1] >= fromYear && year[m-1] <= toYear
+					&& value[BY_COUNT][m-1] >= minCount){
+				found[count++] = m;
+			}
+			// the run moves on to its next movie, or leaves the heap if it has none
+			if(position[r] == runs[r].length){
+				r = heap[--size];
+			}
+			siftDown(heap, size, r, runs, position, v);
+		}
+		return count == found.length ? found : Arrays.copyOf(found, count);
+	}
+
+	/**
+	 * Whether movie a comes before movie b in a measure's order: a higher value first, and the
+	 * smaller id first among equal values
+	 */
+	private static boolean before(double[] v, int a, int b){
+		return v[a-1] > v[b-1] || (v[a-1] == v[b-1] && a < b);
+	}
+
+	private static void siftUp(int[] heap, int child, int r, int[][] runs, int[] position, double[] v){
+		int m = runs[r][position[r]];
+		while(child > 0){
+			int parent = (child - 1) / 2;
+			if(!before(v, m, runs[heap[parent]][position[heap[parent]]])){
+				break;
+			}
+			heap[child] = heap[parent];
+			child = parent;
+		}
+		heap[child] = r;
+	}
+
+	private static void siftDown(int[] heap, int size, int r, int[][] runs, int[] position, double[] v){
+		if(size == 0){
+			return;
+		}
+		int m = runs[r][position[r]];
+		int parent = 0;
+		while(2 * parent + 1 < size){
+			int child = 2 * parent + 1;
+			if(child + 1 < size && before(v, runs[heap[child+1]][position[heap[child+1]]], runs[heap[child]][position[heap[child]]])){
+				child++;
+			}
+			if(!before(v, runs[heap[child]][position[heap[child]]], m)){
+				break;
+			}
+			heap[parent] = heap[child];
+			parent = child;
+		}
+		heap[parent] = r;
+	}
+
+	/**
+	 * Times building the index and a few filtered queries.
+	 * Usage: java data.MovieIndex [ratings_file] [movie_title_file]
+	 */
+	public static void main(String[] args){
+		DataLoader info = new DataLoader();
+		info.loadData(args.length > 1 ? args[1] : "movies.csv", args.length > 0 ? args[0] : "ratings.csv");
+		Map<Integer, Movie> movies = info.getMovies();
+
+		long start = System.nanoTime();
+		MovieIndex index = new MovieIndex(movies);
+		System.out.printf("Indexed %d movies in %.0f ms%n", movies.size(), (System.nanoTime() - start) / 1e6);
+
+		String[] names = {"Highest rated Dramas with at least 50 ratings", "Most rated movies of 1995",
+				"Best scored Comedies of the 1980s"};
+		for(int repeat = 0; repeat < 1000; repeat++){ // warm up
+			index.top(BY_MEAN, 10, "Drama", Integer.MIN_VALUE, Integer.MAX_VALUE, 50);
+			index.top(BY_COUNT, 10, null, 1995, 1995, 0);
+			index.top(BY_SCORE, 10, "Comedy", 1980, 1989, 0);
+		}
+		for(int q = 0; q < names.length; q++){
+			start = System.nanoTime();
+			int[] top = q == 0 ? index.top(BY_MEAN, 10, "Drama", Integer.MIN_VALUE, Integer.MAX_VALUE, 50)
+					: q == 1 ? index.top(BY_COUNT, 10, null, 1995, 1995, 0)
+					: index.top(BY_SCORE, 10, "Comedy", 1980, 1989, 0);
+			System.out.printf("%s, %.1f us:%n", names[q], (System.nanoTime() - start) / 1e3);
+			for(int m : top){
+				System.out.printf("  %-60s %4d ratings, mean %.2f, score %.2f%n", movies.get(m).getTitle(),
+						index.count(m), index.mean(m), index.score(m));
+			}
+		}
+	}
+}
@@ -1,5 +1,10 @@
 package analyzer;
 import data.Movie;
+import data.MovieIndex;
+import data.RatingStats;
+import data.Recommender;
+import data.SharedRatings;
+import data.Reviewer;
 import util.DataLoader;
 import graph.*;
 import java.io.FileNotFoundException;
@@ -14,7 +19,47 @@ import java.util.*;
  */
 public class MovieLensAnalyzer {
 
-	private static Graph graph = new Graph();
+	private static Graph<Integer> graph = new Graph<>();
+
+	// a compact snapshot of the graph, taken once it is built, that the graph algorithms run on
+	private static CompactGraph compact;
+
+	// the connected components of the graph, found once it is built
+	private static ConnectedComponents components;
+
+	// answers shortest path queries once the graph is built, remembering recent paths
+	private static PathQueryService pathQueries;
+	private static final int LANDMARKS = 8;
+	private static final int PATH_CACHE_SIZE = 1000;
+
+	// betweenness is exact up to this many nodes and estimated from sampled nodes above it
+	private static final int BETWEENNESS_EXACT_LIMIT = 5000;
+	private static final int BETWEENNESS_SAMPLES = 500;
+
+	// personalized PageRank stops once the scores change by less than this in total
+	private static final double RELATED_TOLERANCE = 1e-6;
+	private static final int RELATED_MAX_ITERATIONS = 100;
+
+	// the Louvain communities of the graph, found the first time they are asked for
+	private static Communities communities;
+
+	// item-based recommendations, with each movie's most similar movies found when the data is loaded
+	private static Recommender recommender;
+	private static Map<Integer, Reviewer> reviewers;
+	private static final int RECOMMENDER_NEIGHBORS = 50;
+
+	// the catalog ranked by number of ratings, mean rating and Bayesian score, for top movie queries
+	private static MovieIndex movieIndex;
+
+	// the number of reviewers two movies must share to be adjacent in option 1
+	private static final int SHARED_REVIEWERS = 12;
+
+	// the most shared reviewers listed for each hop of an explained path
+	private static final int SHARED_REVIEWERS_LISTED = 8;
+
+	// the number of sampled nodes and the most searches spent on the diameter for approximate statistics
+	private static final int APPROXIMATE_SAMPLES = 100;
+	private static final int APPROXIMATE_SEARCHES = 50;
 	
 	public static void main(String[] args) throws FileNotFoundException {
 		// Your program should take two command-line arguments: 
@@ -31,6 +76,9 @@ public class MovieLensAnalyzer {
 		graphBuilder.USER_INTERFACE(args);
 		info.loadData(args[1],args[0]);
 		Map<Integer, Movie> movies = info.getMovies();
+		reviewers = info.getReviewers();
+		recommender = new Recommender(movies, RECOMMENDER_NEIGHBORS);
+		movieIndex = new MovieIndex(movies);
 
 
 		if(graphBuilder.USER_INTERFACE(args) == 1){
@@ -44,6 +92,9 @@ public class MovieLensAnalyzer {
 			graphBuilder.buildGraphOp2(movies);
 			System.out.print("The graph has been created\n.");
 		}
+		compact = new CompactGraph(graph);
+		components = ConnectedComponents.weak(compact);
+		pathQueries = new PathQueryService(compact, LANDMARKS, PATH_CACHE_SIZE);
 
 		graphBuilder.POST_CREATION_USER_INTERFACE(movies);
 
@@ -75,29 +126,79 @@ public class MovieLensAnalyzer {
 	private static void POST_CREATION_USER_INTERFACE(Map<Integer,Movie>movies){
 		Scanner input = new Scanner (System.in);
 		int choice = 0;
-		while(choice != 4){
+		while(choice != 9){
 			System.out.println("\n[Option 1] Print out statistics about the graph");
 			System.out.println("[Option 2] Print node information");
 			System.out.println("[Option 3] Display shortest path between two nodes");
-			System.out.println("[Option 4] Quit");
-			System.out.print("Choose an option (1-4): ");
+			System.out.println("[Option 4] Print the movies that bridge the most shortest paths");
+			System.out.println("[Option 5] Show movies related to a movie");
+			System.out.println("[Option 6] List the movies in a movie's community");
+			System.out.println("[Option 7] Recommend movies for a reviewer");
+			System.out.println("[Option 8] Find the top movies of a genre and years");
+			System.out.println("[Option 9] Quit");
+			System.out.print("Choose an option (1-9): ");
 			choice = input.nextInt();
 
-			if(choice == 4){
+			if(choice == 9){
+				if(pathQueries.hits() + pathQueries.misses() > 0){ //report the path cache once, on the way out
+					System.out.println(pathQueries.hits() + " path queries were answered from the cache and " + pathQueries.misses() + " needed a search");
+				}
 				break;
 			}
 			else if (choice == 1){
-				graphStatistics();
+				System.out.print("Exact (1) or approximate (2) statistics? ");
+				if(input.nextInt() == 2){
+					approximateStatistics();
+				}
+				else{
+					graphStatistics();
+				}
 			}
 			else if (choice == 2){
 				printNodeInfo(movies);
 			}
+			else if (choice == 4){
+				System.out.print("How many movies? ");
+				printCentralMovies(input.nextInt(), movies);
+			}
+			else if (choice == 5){
+				System.out.print("Enter movie id (1-1000): ");
+				int movieID = input.nextInt();
+				System.out.print("How many movies? ");
+				printRelatedMovies(movieID, input.nextInt(), movies);
+			}
+			else if (choice == 6){
+				System.out.print("Enter movie id (1-1000): ");
+				printCommunity(input.nextInt(), movies);
+			}
+			else if (choice == 7){
+				System.out.print("Enter reviewer id: ");
+				int reviewerID = input.nextInt();
+				System.out.print("How many movies? ");
+				printRecommendations(reviewerID, input.nextInt(), movies);
+			}
+			else if (choice == 8){
+				System.out.println("Genres: " + String.join(", ", movieIndex.genres()));
+				System.out.print("Genre (or any): ");
+				String genre = input.next();
+				System.out.print("From year (0 for any): ");
+				int fromYear = input.nextInt();
+				System.out.print("To year (0 for any): ");
+				int toYear = input.nextInt();
+				System.out.print("Fewest ratings: ");
+				int minCount = input.nextInt();
+				System.out.print("Rank by number of ratings (1), mean rating (2) or score (3)? ");
+				int measure = input.nextInt();
+				System.out.print("How many movies? ");
+				printTopMovies(genre.equalsIgnoreCase("any") ? null : genre, fromYear, toYear, minCount, measure, input.nextInt(), movies);
+			}
 			else{
 				System.out.print("Enter Starting node (1-1000): ");
 				int startingNode = input.nextInt();
 				System.out.print("Enter Ending node (1-1000): ");
 				int endingNode = input.nextInt();
-				printShortestPath(startingNode,endingNode,movies);
+				System.out.print("Explain each hop with the reviewers the movies share (y/n)? ");
+				printShortestPath(startingNode,endingNode,movies,input.next().toLowerCase().startsWith("y"));
 			}
 		}
 
@@ -108,36 +209,147 @@ public class MovieLensAnalyzer {
 	 * @param ID1 the id of the first movie in the path
 	 * @param ID2 the id of the last movie in the path
 	 * @param movies the map of all movies
+	 * @param explain whether to print the reviewers who rated both movies of each hop and how well their ratings agree
 	 */
-	private static void printShortestPath(int ID1, int ID2, Map<Integer,Movie>movies){
-		GraphAlgorithms algs = new GraphAlgorithms();
-		algs.getMovieMap(movies);
-		int [] prev = algs.dijkstrasAlgorithm(graph, ID1); //get the shortest path from first movie to all others
-
-		int current = ID2;
-		Stack<String> moviePath = new Stack<>(); //initialize stack to help with printing the path
-		boolean running = true;
-		while(current != ID1 && running){
-
-			if(prev[current] != 0){ //if there was a previous node in the path add to stack
-				moviePath.push(movies.get(prev[current]).getTitle() + " ===> " + movies.get(current).getTitle());
-				current = prev[current]; //update our current movie
-			}
-			else{ //if there wasn't a previous node in the path then the movies are not connected in the graph
-				System.out.println("Movies were not connected");
-				running = false;
+	private static void printShortestPath(int ID1, int ID2, Map<Integer,Movie>movies, boolean explain){
+		if(!components.connected(ID1, ID2)){ //movies in different components have no path, so skip the search
+			System.out.println("Movies were not connected");
+			return;
+		}
+		//landmark guided search, or straight from the cache if this pair was asked for recently
+		List<Integer> path = pathQueries.shortestPath(ID1, ID2);
+
+		if(path.isEmpty()){ //if there was no path then the movies are not connected in the graph
+			System.out.println("Movies were not connected");
+		}
+		for(int i = 0; i + 1 < path.size(); i++){ //print each hop along the path
+			System.out.println(movies.get(path.get(i)).getTitle() + " ===> " + movies.get(path.get(i+1)).getTitle());
+			if(explain){
+				printSharedReviewers(movies.get(path.get(i)), movies.get(path.get(i+1)));
 			}
 		}
+	}
+
+	/**
+	 * method that prints how many reviewers rated both movies of a hop, how closely their two ratings
+	 * agree, and the first SHARED_REVIEWERS_LISTED of them with their ratings
+	 * @param from the first movie of the hop
+	 * @param to the second movie of the hop
+	 */
+	private static void printSharedReviewers(Movie from, Movie to){
+		SharedRatings shared = SharedRatings.between(from, to);
+		if(shared.count() == 0){
+			System.out.println("\tno shared reviewers");
+			return;
+		}
+		System.out.printf("\t%d shared reviewers, ratings %.2f stars apart on average, %.0f%% within half a star%n",
+				shared.count(), shared.meanDifference(), 100 * shared.agreement());
+		System.out.println("\treviewers (ratings): " + shared.describe(SHARED_REVIEWERS_LISTED));
+	}
+
+	/**
+	 * method that prints the movies with the highest betweenness centrality, the ones that lie on the
+	 * most shortest paths between other movies and so bridge otherwise separate audiences. Graphs with
+	 * more than BETWEENNESS_EXACT_LIMIT nodes are estimated from BETWEENNESS_SAMPLES sampled nodes
+	 * @param k how many movies to print
+	 * @param movies the map of all movies
+	 */
+	private static void printCentralMovies(int k, Map<Integer,Movie>movies){
+		double[] betweenness = graph.numVertices() <= BETWEENNESS_EXACT_LIMIT
+				? BetweennessCentrality.exact(compact)
+				: BetweennessCentrality.sampled(compact, BETWEENNESS_SAMPLES, System.nanoTime());
+		int[] top = GraphAlgorithms.topK(betweenness, k);
+		for(int i = 0; i < top.length; i++){
+			System.out.printf("%d. %s (%.1f)%n", i + 1, movies.get(top[i]).getTitle(), betweenness[top[i]-1]);
+		}
+	}
+
+	/**
+	 * method that prints the movies most related to a movie, ranked by personalized PageRank: a random
+	 * walk over the graph that keeps jumping back to the chosen movie, so the movies it visits most are
+	 * the ones most strongly tied to it
+	 * @param movieID the id of the movie to find related movies for
+	 * @param k how many movies to print
+	 * @param movies the map of all movies
+	 */
+	private static void printRelatedMovies(int movieID, int k, Map<Integer,Movie>movies){
+		double[] scores = PowerIteration.personalizedPageRank(compact, movieID,
+				PowerIteration.DAMPING, RELATED_TOLERANCE, RELATED_MAX_ITERATIONS);
+		scores[movieID-1] = -1; //the movie itself always ranks first
+		int[] top = GraphAlgorithms.topK(scores, k);
+		for(int i = 0; i < top.length; i++){
+			System.out.printf("%d. %s (%.5f)%n", i + 1, movies.get(top[i]).getTitle(), scores[top[i]-1]);
+		}
+	}
 
-		while(!moviePath.isEmpty()){ //print the path off the stack
-			System.out.println(moviePath.pop());
+	/**
+	 * method that prints every movie in the same community as a movie, where the communities are groups
+	 * of movies with far more edges among themselves than to the rest of the graph, found with the
+	 * Louvain method the first time they are needed
+	 * @param movieID the id of the movie whose community is printed
+	 * @param movies the map of all movies
+	 */
+	private static void printCommunity(int movieID, Map<Integer,Movie>movies){
+		if(communities == null){
+			communities = Communities.louvain(compact);
+		}
+		int community = communities.communityOf(movieID);
+		System.out.println("Community " + community + " of " + communities.count() + ", " + communities.size(community)
+				+ " movies (modularity " + communities.modularity() + "):");
+		for(int member : communities.members(community)){
+			System.out.println(movies.get(member).getTitle());
 		}
+	}
 
+	/**
+	 * method that prints the movies a reviewer has not rated that they are predicted to like most, from
+	 * the ratings they gave the movies most similar to each candidate
+	 * @param reviewerID the id of the reviewer
+	 * @param n how many movies to print
+	 * @param movies the map of all movies
+	 */
+	private static void printRecommendations(int reviewerID, int n, Map<Integer,Movie>movies){
+		Reviewer reviewer = reviewers.get(reviewerID);
+		if(reviewer == null){
+			System.out.println("No reviewer with id " + reviewerID);
+			return;
+		}
+		int[] top = recommender.recommend(reviewer, n);
+		for(int i = 0; i < top.length; i++){
+			System.out.println((i + 1) + ". " + movies.get(top[i]).getTitle());
+		}
+	}
+
+	/**
+	 * method that prints the best movies of a genre and range of years from the movie index, ranked
+	 * by number of ratings, mean rating, or mean rating pulled towards the catalog mean
+	 * @param genre the genre the movies must have, or null for any genre
+	 * @param fromYear the earliest year, or 0 for no limit
+	 * @param toYear the latest year, or 0 for no limit
+	 * @param minCount the fewest ratings a movie may have
+	 * @param measure 1 for number of ratings, 2 for mean rating, 3 for score
+	 * @param n how many movies to print
+	 * @param movies the map of all movies
+	 */
+	private static void printTopMovies(String genre, int fromYear, int toYear, int minCount, int measure, int n, Map<Integer,Movie>movies){
+		int by = measure == 1 ? MovieIndex.BY_COUNT : measure == 2 ? MovieIndex.BY_MEAN : MovieIndex.BY_SCORE;
+		int[] top = movieIndex.top(by, n, genre, fromYear == 0 ? Integer.MIN_VALUE : fromYear,
+				toYear == 0 ? Integer.MAX_VALUE : toYear, minCount);
+		if(top.length == 0){
+			System.out.println("No movies matched");
+		}
+		for(int i = 0; i < top.length; i++){
+			int m = top[i];
+			System.out.printf("%d. %s (%d ratings, mean %.2f, score %.2f)%n", i + 1, movies.get(m).getTitle(),
+					movieIndex.count(m), movieIndex.mean(m), movieIndex.score(m));
+		}
 	}
 
 	/**
 	 * method that takes in a map of movies with their id and then the movie object and builds a graph
-	 * where two nodes are connected if they were reviewed by the same 12 reviewers
+	 * where two nodes are connected if they were reviewed by the same 12 reviewers. The edge weight
+	 * records how many reviewers the movies share, converted by linkCost so that a stronger link
+	 * is a shorter edge
 	 * @param movies the map of id, movie (key, value) pairs to build the graph from
 	 */
 	private static void buildGraphOp1(Map<Integer,Movie>movies){
@@ -149,22 +361,23 @@ public class MovieLensAnalyzer {
 
 
 		for(int i = 1; i <movies.size()-1; i++){
+			Map<Integer,Double>currentRatings = movies.get(i).getRatings();
 
 			for(int k = i+1; k < movies.size(); k++){
-				Map<Integer,Double>currentRatings = movies.get(i).getRatings();
-				Set<Integer> currentReviewersSet = currentRatings.keySet();
-				Object[] reviewersArray = currentReviewersSet.toArray();
+				Map<Integer,Double>nextRatings = movies.get(k).getRatings();
+				//probe the larger ratings map with the reviewers of the smaller one
+				Map<Integer,Double>smaller = currentRatings.size() <= nextRatings.size() ? currentRatings : nextRatings;
+				Map<Integer,Double>larger = smaller == currentRatings ? nextRatings : currentRatings;
 				int count = 0;
-				int j = 0;
-				while(count < 12 && j < reviewersArray.length){
-					if(movies.get(k).getRatings().containsKey((Integer)reviewersArray[j])){
+				for(Integer reviewer : smaller.keySet()){
+					if(larger.containsKey(reviewer)){
 						count++;
 					}
-					j++;
 				}
-				if(count == 12){ //when the count reaches twelve we add an edge between the nodes
-					graph.addEdge(i,k);
-					graph.addEdge(k,i);
+				if(count >= SHARED_REVIEWERS){ //when the count reaches twelve we add an edge between the nodes
+					int weight = linkCost(count);
+					graph.addEdge(i,k,weight);
+					graph.addEdge(k,i,weight);
 				}
 			}
 
@@ -172,67 +385,85 @@ public class MovieLensAnalyzer {
 
 	}
 
+	/**
+	 * method that turns the number of reviewers two movies share into an edge length. Two movies
+	 * sharing exactly SHARED_REVIEWERS reviewers are 10 apart and the length shrinks as the overlap
+	 * grows as 10 * SHARED_REVIEWERS / shared, bottoming out at 1 once they share more than five
+	 * times the threshold, so the weighted shortest path is the strongest-link chain between two
+	 * movies
+	 * @param shared the number of reviewers who rated both movies
+	 * @return the length of the edge between the two movies
+	 */
+	private static int linkCost(int shared){
+		return Math.max(1, (10 * SHARED_REVIEWERS) / shared);
+	}
+
 	/**
 	 * method that reads the graph built from the movie map and prints the graph's statistics
 	 * prints the number of vertices, the number of edges, the density, the max degree, the diameter,
-	 * and the average path length between nodes
+	 * the average path length between nodes, how many pairs of nodes are and are not connected, how
+	 * many nodes have each eccentricity, the number of triangles and the clustering coefficients,
+	 * followed by the size and diameter of each connected component with more than one node. The
+	 * path statistics count hops, ignoring edge lengths, and come from multi-source breadth first
+	 * searches that run 64 sources at once, so no matrix of all distances is built
 	 */
 	private static void graphStatistics(){
-		GraphAlgorithms gA = new GraphAlgorithms();
-		int[][] fWResult = gA.floydWarshall(graph);
+		DistanceSummary paths = MultiSourceBfs.summarize(compact);
 		double possibleEdges = graph.numVertices() * (graph.numVertices()-1);
 		float density = (float)graph.numEdges() / (float)possibleEdges;
 		System.out.println("Graph statistics:");
 		System.out.println("|V| = " + graph.numVertices() + " vertices");
 		System.out.println("|E| = " + graph.numEdges() + " edges" );
 		System.out.println("Density = " + density);
-		System.out.println("Max. Deg = " + graph.degree(graph.maxDegree()) + " (Node " + graph.maxDegree() + ")");
-		System.out.println("Diameter = " + getDiameter(fWResult));
-		System.out.println("Avg path length = " + getAveragePathLength(fWResult));
-	}
-
-	/**
-	 * method that takes a 2d array of shortest paths between nodes in a graph and finds the largest
-	 * shortest path to return. When there are sub graphs within the graph the shortest paths array is
-	 * created from this method ignores the infinite weights only returning the diameter of the largest sub
-	 * graph
-	 * @param shortestPaths 2d array of shortest paths between all nodes in a graph
-	 * @return the largest shortest path within the graph
-	 */
-	private static int getDiameter(int[][]shortestPaths){
-		int diameter = -1;
-		for (int i = 0; i < shortestPaths.length; i++){ //iterate over all elements
-			for (int j = 0; j < shortestPaths.length; j++){
-				if (shortestPaths[i][j] > diameter && shortestPaths[i][j] < 19999999){//if the shortest path is greater than cur diameter
-					diameter = shortestPaths[i][j]; //update the diameter
-				}
+		Integer maxDegreeNode = graph.maxDegree();
+		System.out.println("Max. Deg = " + graph.degree(maxDegreeNode) + " (Node " + maxDegreeNode + ")");
+		System.out.println("Diameter = " + paths.diameter());
+		System.out.println("Avg path length = " + paths.averagePathLength());
+		System.out.println("Connected pairs = " + paths.reachablePairs() + ", not connected = " + paths.unreachablePairs());
+		System.out.println("Eccentricity distribution = " + Arrays.toString(paths.eccentricityDistribution()));
+		TriangleCount triangles = TriangleCount.count(compact);
+		System.out.println("Triangles = " + triangles.total());
+		System.out.println("Global clustering = " + triangles.globalClustering() + ", avg local clustering = " + triangles.averageClustering());
+		System.out.println("Components = " + components.count());
+		int isolated = 0;
+		for(int c = 1; c <= components.count(); c++){
+			if(components.size(c) == 1){
+				isolated++;
+				continue;
+			}
+			//the diameter of a component is the largest eccentricity among its nodes
+			int diameter = 0;
+			for(int v : components.members(c)){
+				diameter = Math.max(diameter, paths.eccentricity(v));
 			}
+			System.out.println("  Component " + c + ": " + components.size(c) + " nodes, diameter " + diameter);
 		}
-		return diameter;
+		System.out.println("  " + isolated + " isolated nodes");
 	}
 
 	/**
-	 * method that gets the average path length between nodes. When the graph that generated the shortestPaths
-	 * array has disconnected sub graphs within the main graph the method ignores the
-	 * @param shortestPaths
-	 * @return
+	 * method that prints estimates of the graph's path statistics for graphs too large for a search
+	 * from every node. The diameter is bracketed by a handful of searches and the average path length
+	 * and distance distribution are estimated from APPROXIMATE_SAMPLES sampled nodes, each with a 95%
+	 * confidence interval
 	 */
-	private static double getAveragePathLength(int[][]shortestPaths){
-		double avg = -1;
-		int totalCount = 0;
-		int totalNodes = shortestPaths.length * shortestPaths.length;
-		for (int i = 0; i < shortestPaths.length; i++){
-			for (int j = 0; j < shortestPaths.length; j++){
-				if (shortestPaths[i][j] < 19999999){
-					totalCount += shortestPaths[i][j];
-				}
-				else{
-					totalCount--;
-				}
-			}
+	private static void approximateStatistics(){
+		ApproximateStatistics paths = ApproximateStatistics.estimate(compact, APPROXIMATE_SAMPLES, APPROXIMATE_SEARCHES, System.nanoTime());
+		System.out.println("Approximate graph statistics:");
+		System.out.println("|V| = " + graph.numVertices() + " vertices");
+		System.out.println("|E| = " + graph.numEdges() + " edges" );
+		if(paths.diameterLowerBound() == paths.diameterUpperBound()){
+			System.out.println("Diameter = " + paths.diameterLowerBound() + " (" + paths.diameterSearches() + " searches)");
+		}
+		else{
+			System.out.println("Diameter between " + paths.diameterLowerBound() + " and " + paths.diameterUpperBound() + " (" + paths.diameterSearches() + " searches)");
+		}
+		System.out.printf("Avg path length = %.4f +/- %.4f (%d sampled nodes)%n", paths.averageDistance(), paths.averageDistanceMargin(), paths.samples());
+		double[] distribution = paths.distanceDistribution();
+		double[] margin = paths.distanceDistributionMargin();
+		for(int d = 1; d < distribution.length; d++){
+			System.out.printf("  distance %d: %.2f%% +/- %.2f%% of connected pairs%n", d, 100 * distribution[d], 100 * margin[d]);
 		}
-		avg = (double) totalCount / (double) totalNodes;
-		return avg;
 	}
 
 	/**
@@ -253,7 +484,8 @@ public class MovieLensAnalyzer {
 
 	/**
 	 * method that builds a graph out of the map of movies by connecting two nodes if they have the same
-	 * average integer movie rating.
+	 * average integer movie rating. The edge weight is one more than the difference between the exact
+	 * averages in tenths of a star, so movies whose averages agree more closely are closer together
 	 * @param movies the map of all id's and movie objects
 	 */
 	private static void buildGraphOp2 (Map<Integer,Movie> movies){
@@ -265,24 +497,20 @@ public class MovieLensAnalyzer {
 		int nextAvg = 0;
 
 		for(int i = 1; i <movies.size()-1; i++){
-			Map<Integer,Double>currentRatings = movies.get(i).getRatings();
-			double sum1 = 0;
-			for(Integer ID1 : currentRatings.keySet()){
-				sum1 += currentRatings.get(ID1);
-			}
-			currentAvg = (int)sum1/currentRatings.size();
+			RatingStats current = movies.get(i).getRatingStats(); //sums are kept as ratings are loaded
+			double sum1 = current.getSum();
+			currentAvg = (int)sum1/current.getCount();
 
 			for(int k = i+1; k < movies.size(); k++){
-				Map<Integer,Double>  nextRatings = movies.get(k).getRatings();
-				double sum2 = 0;
-				for(Integer ID2 : nextRatings.keySet()){
-					sum2 += nextRatings.get(ID2);
-				}
-				nextAvg = (int)sum2/nextRatings.size();
+				RatingStats next = movies.get(k).getRatingStats();
+				double sum2 = next.getSum();
+				nextAvg = (int)sum2/next.getCount();
 
 				if(currentAvg==nextAvg){
-					graph.addEdge(i,k);
-					graph.addEdge(k,i);
+					double difference = Math.abs(sum1/current.getCount() - sum2/next.getCount());
+					int weight = 1 + (int)Math.round(difference * 10);
+					graph.addEdge(i,k,weight);
+					graph.addEdge(k,i,weight);
 				}
 			}
 		}
@@ -0,0 +1,165 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * All pairs shortest path statistics for unweighted graphs using multi-source breadth first
+ * search (MS-BFS). Sixty-four searches run together, one per bit of a long: each vertex
+ * keeps a word of the searches that have seen it and a word of the searches for which it is
+ * on the current frontier, so one pass over an edge advances all 64 searches at once.
+ * Batches of 64 sources are spread over the common fork-join pool.
+ *
+ * Sparse graphs are first relabeled in reverse Cuthill-McKee order, so each batch holds 64
+ * sources close together in the graph. Their frontiers overlap and their searches end at
+ * about the same level, so fewer passes are spent advancing only a few stragglers. Dense
+ * graphs, like the movie graphs, are searched in a few levels and are left as they are.
+ *
+ * Each worker needs three longs per vertex, so memory stays O(V) per worker, unlike the
+ * V x V matrix of Floyd-Warshall. Edge weights are ignored; distances are numbers of edges.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class MultiSourceBfs {
+
+    private static final int BATCH = Long.SIZE;
+
+    // graphs with at most this average degree are relabeled before they are searched
+    private static final int REORDER_MAX_DEGREE = 64;
+
+    /**
+     * Computes the diameter, average path length and eccentricities of a graph
+     * @param graph the graph
+     * @return the statistics over all ordered pairs of vertices
+     */
+    public static DistanceSummary summarize(CompactGraph graph){
+        boolean sparse = graph.targets.length <= (long) REORDER_MAX_DEGREE * graph.numVertices;
+        return summarize(graph, sparse ? VertexOrdering.reverseCuthillMcKee(graph) : null);
+    }
+
+    /**
+     * Computes the statistics batching the sources in the order of a relabeling
+     * @param graph the graph
+     * @param order a relabeling of the graph whose consecutive vertices are searched together,
+     *        or null to batch the vertices as they are numbered
+     * @return the statistics over all ordered pairs of vertices, in the graph's own numbering
+     */
+    static DistanceSummary summarize(CompactGraph graph, VertexOrdering order){
+        int n = graph.numVertices;
+        CompactGraph searched = order == null ? graph : order.graph();
+        int batches = (n + BATCH - 1) / BATCH;
+        DistanceSummary summary = new DistanceSummary(n);
+        ThreadLocal<long[][]> workspace = ThreadLocal.withInitial(() -> new long[3][n]);
+        IntStream.range(0, batches).parallel()
+                .forEach(b -> searchBatch(searched, order, b * BATCH + 1, Math.min(n, (b + 1) * BATCH), workspace.get(), summary));
+        return summary;
+    }
+
+    /**
+     * Runs the searches from sources first...last together
+     * @param order the relabeling the graph is numbered by, or null if it is not relabeled
+     * @param space three arrays of n longs: seen, frontier and next frontier
+     * @param summary where the statistics of these sources are added
+     */
+    private static void searchBatch(CompactGraph graph, VertexOrdering order, int first, int last, long[][] space, DistanceSummary summary){
+        int n = graph.numVertices;
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        long[] seen = space[0];
+        long[] frontier = space[1];
+        long[] next = space[2];
+        Arrays.fill(seen, 0);
+        Arrays.fill(frontier, 0);
+        Arrays.fill(next, 0);
+
+        int count = last - first + 1;
+        int[] farthest = new int[count];
+        long[] distanceSum = new long[count];
+        long[] reached = new long[count];
+        for (int i = 0; i < count; i++){
+            seen[first + i - 1] |= 1L << i;
+            frontier[first + i - 1] |= 1L << i;
+        }
+
+        boolean active = true;
+        for (int level = 1; active; level++){
+            // push every frontier word across the out-edges
+            for (int u = 0; u < n; u++){
+                long bits = frontier[u];
+                if (bits != 0){
+                    for (int e = offsets[u]; e < offsets[u+1]; e++){
+                        next[targets[e]-1] |= bits;
+                    }
+                }
+            }
+            active = false;
+            long grew = 0;
+            for (int v = 0; v < n; v++){
+                long fresh = next[v] & ~seen[v];
+                next[v] = 0;
+                frontier[v] = fresh;
+                if (fresh != 0){
+                    seen[v] |= fresh;
+                    grew |= fresh;
+                    active = true;
+                    // count the newly reached vertex once for each search that reached it
+                    for (long bits = fresh; bits != 0; bits &= bits - 1){
+                        int i = Long.numberOfTrailingZeros(bits);
+                        distanceSum[i] += level;
+                        reached[i]++;
+                    }
+                }
+            }
+            for (long bits = grew; bits != 0; bits &= bits - 1){
+                farthest[Long.numberOfTrailingZeros(bits)] = level;
+            }
+        }
+
+        for (int i = 0; i < count; i++){
+            int source = order == null ? first + i : order.toOriginal(first + i);
+            summary.addSource(source, farthest[i], distanceSum[i], reached[i]);
+        }
+    }
+
+    /**
+     * Times MS-BFS against one breadth first search per source on a random graph.
+     * Usage: java graph.MultiSourceBfs [vertices] [average degree]
+     */
+    public static void main(String[] args){
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Random random = new Random(361);
+        Graph<Integer> g = new Graph<>();
+        for (int v = 1; v <= n; v++){
+            g.addVertex(v);
+        }
+        for (int v = 1; v <= n; v++){
+            for (int i = 0; i < degree / 2; i++){
+                int u = 1 + random.nextInt(n);
+                g.addEdge(v, u);
+                g.addEdge(u, v);
+            }
+        }
+        CompactGraph graph = new CompactGraph(g);
+
+        long start = System.nanoTime();
+        DistanceSummary summary = summarize(graph);
+        long msBfs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        BreadthFirstPaths bfs = new BreadthFirstPaths(n);
+        long total = 0;
+        for (int s = 1; s <= n; s++){
+            bfs.search(graph, s);
+            for (int i = 1; i < bfs.reached(); i++){
+                total += bfs.distance(bfs.reachedNode(i));
+            }
+        }
+        long single = System.nanoTime() - start;
+
+        System.out.println("Diameter = " + summary.diameter() + ", Avg path length = " + summary.averagePathLength());
+        System.out.println("Total distance: MS-BFS " + summary.totalDistance() + ", one BFS per source " + total);
+        System.out.printf("MS-BFS %.0f ms, one BFS per source %.0f ms%n", msBfs / 1e6, single / 1e6);
+    }
+}
@@ -0,0 +1,229 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * An indexed min priority queue kept as a pairing heap: a tree in which every node's priority
+ * is no larger than its children's, with no constraint on shape. Pushing and decreasing a
+ * priority each cut at most one subtree and link it under or over the root in constant time;
+ * the work is deferred to pop, which merges the root's children in two passes. That makes it
+ * the cheapest of the queues for decrease-key, at the price of a slower and less predictable
+ * pop than an array heap.
+ *
+ * Every node is an element, so the tree is kept in int arrays indexed by element: its
+ * priority, its first child, its next sibling, and the node before it (its left sibling, or
+ * its parent if it is a first child). Elements and priorities must be non-negative, and no
+ * operation allocates once the arrays are large enough.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class PairingHeap implements IndexedPriorityQueue {
+
+	private static final int NONE = -1;
+
+	private int[] priority; // indexed by element
+	private int[] child;    // indexed by element; its first child, or NONE
+	private int[] sibling;  // indexed by element; its next sibling, or NONE
+	private int[] prev;     // indexed by element; its left sibling or parent, or NONE for the root
+	private boolean[] present;
+	private int[] scratch;  // the subtrees being merged during a pop
+	private int root = NONE;
+	private int size;
+
+	/**
+	 *  Constructs an empty pairing heap for the elements 0 to capacity-1
+	 *  @param capacity one more than the largest element expected
+	 */
+	public PairingHeap(int capacity) {
+		capacity = Math.max(1, capacity);
+		priority = new int[capacity];
+		child = new int[capacity];
+		sibling = new int[capacity];
+		prev = new int[capacity];
+		present = new boolean[capacity];
+		scratch = new int[capacity];
+	}
+
+	@Override
+	public void push(int newpriority, int element) {
+		assert(!isPresent(element));
+		assert(newpriority >= 0);
+		if(element >= present.length) {
+			int length = Math.max(element + 1, 2 * present.length);
+			priority = Arrays.copyOf(priority, length);
+			child = Arrays.copyOf(child, length);
+			sibling = Arrays.copyOf(sibling, length);
+			prev = Arrays.copyOf(prev, length);
+			present = Arrays.copyOf(present, length);
+			scratch = Arrays.copyOf(scratch, length);
+		}
+		priority[element] = newpriority;
+		child[element] = NONE;
+		sibling[element] = NONE;
+		prev[element] = NONE;
+		present[element] = true;
+		size++;
+		root = root == NONE ? element : link(root, element);
+	}
+
+	@Override
+	public void pop() {
+		if(size == 0) {
+			throw new AssertionError("heap is empty");
+		}
+		present[root] = false;
+		size--;
+		root = mergePairs(child[root]);
+	}
+
+	@Override
+	public int topPriority() {
+		assert(size > 0);
+		return priority[root];
+	}
+
+	@Override
+	public int topElement() {
+		assert(size > 0);
+		return root;
+	}
+
+	@Override
+	public void changePriority(int newpriority, int element) {
+		assert(isPresent(element));
+		if(newpriority <= priority[element]) {
+			priority[element] = newpriority;
+			if(element != root) {
+				// the subtree stays in order; only the link to its parent may now be wrong
+				cut(element);
+				root = link(root, element);
+			}
+			return;
+		}
+		// a larger priority may break order with the children, so they are merged back in separately
+		if(element == root) {
+			root = mergePairs(child[element]);
+		}
+		else {
+			cut(element);
+			int children = mergePairs(child[element]);
+			if(children != NONE) {
+				root = link(root, children);
+			}
+		}
+		priority[element] = newpriority;
+		child[element] = NONE;
+		root = root == NONE ? element : link(root, element);
+	}
+
+	@Override
+	public int getPriority(int element) {
+		assert(isPresent(element));
+		return priority[element];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean isPresent(int element) {
+		return element >= 0 && element < present.length && present[element];
+	}
+
+	@Override
+	public void clear() {
+		// walk the tree with scratch as a stack to unmark only the elements still in it
+		int top = 0;
+		if(root != NONE) {
+			scratch[top++] = root;
+		}
+		while(top > 0) {
+			int node = scratch[--top];
+			present[node] = false;
+			for(int c = child[node]; c != NONE; c = sibling[c]) {
+				scratch[top++] = c;
+			}
+		}
+		root = NONE;
+		size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Makes the root with the larger priority the first child of the other
+	 * @param a the root of one tree, with no siblings
+	 * @param b the root of another tree, with no siblings
+	 * @return the root of the combined tree
+	 */
+	private int link(int a, int b) {
+		if(priority[b] < priority[a]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		int first = child[a];
+		sibling[b] = first;
+		if(first != NONE) {
+			prev[first] = b;
+		}
+		prev[b] = a;
+		child[a] = b;
+		return a;
+	}
+
+	/**
+	 * Detaches a node and its subtree from its parent and siblings
+	 */
+	private void cut(int node) {
+		int before = prev[node];
+		if(child[before] == node) {
+			child[before] = sibling[node];
+		}
+		else {
+			sibling[before] = sibling[node];
+		}
+		if(sibling[node] != NONE) {
+			prev[sibling[node]] = before;
+		}
+		prev[node] = NONE;
+		sibling[node] = NONE;
+	}
+
+	/**
+	 * Merges a list of sibling trees into one: first linking them in pairs from the left, then
+	 * linking the pairs into the rightmost from right to left
+	 * @param first the first of the siblings, or NONE
+	 * @return the root of the merged tree, or NONE if there were no siblings
+	 */
+	private int mergePairs(int first) {
+		int count = 0;
+		for(int c = first; c != NONE; ) {
+			int next = sibling[c];
+			prev[c] = NONE;
+			sibling[c] = NONE;
+			scratch[count++] = c;
+			c = next;
+		}
+		if(count == 0) {
+			return NONE;
+		}
+		int pairs = 0;
+		for(int i = 0; i + 1 < count; i += 2) {
+			scratch[pairs++] = link(scratch[i], scratch[i + 1]);
+		}
+		if(count % 2 == 1) {
+			scratch[pairs++] = scratch[count - 1];
+		}
+		int merged = scratch[pairs - 1];
+		for(int i = pairs - 2; i >= 0; i--) {
+			merged = link(scratch[i], merged);
+		}
+		return merged;
+	}
+}
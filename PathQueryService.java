@@ -0,0 +1,261 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import util.IndexedPriorityQueue;
+
+/**
+ * Answers repeated shortest path queries on a graph that no longer changes.
+ *
+ * When it is created the service picks the highest degree vertices as landmarks and stores the
+ * distance from every landmark to every vertex and back (ALT). The triangle inequality then
+ * gives bounds on any distance straight from the tables: d(s,t) is at least d(L,t) - d(L,s)
+ * and d(s,L) - d(t,L), and at most d(s,L) + d(L,t). The lower bound is a consistent A*
+ * heuristic, so path searches head towards the target instead of growing in every direction.
+ *
+ * Recent paths are kept in a least recently used cache, so a repeated query, or on a
+ * symmetric graph the same query reversed, is answered without searching.
+ *
+ * Vertices are the integers 1...n. Distances use the edge weights if the graph has any and
+ * count edges otherwise. A Graph is copied when the service is created, so later changes
+ * to it are not seen.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class PathQueryService {
+
+    // returned by the bound queries when no landmark relates the two vertices
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final CompactGraph graph;
+    private final boolean symmetric;
+    private final int[] landmarks;
+    private final int[][] fromLandmark; // [i][v-1] is the distance from landmark i to v
+    private final int[][] toLandmark;   // [i][v-1] is the distance from v to landmark i
+
+    private final Map<Long,List<Integer>> cache;
+    private long hits;
+    private long misses;
+
+    private final DijkstraPaths paths; // the workspace cache misses are searched in
+
+    /**
+     * Creates a query service for a graph
+     * @param graph a graph whose vertices are numbered 1...n
+     * @param numLandmarks the number of landmarks; more give tighter bounds but take more memory
+     * @param cacheCapacity the most paths to remember
+     */
+    public PathQueryService(Graph<Integer> graph, int numLandmarks, int cacheCapacity){
+        this(new CompactGraph(graph), numLandmarks, cacheCapacity);
+    }
+
+    /**
+     * Creates a query service for a snapshot of a graph, which is used as it is
+     * @param graph a compact graph
+     * @param numLandmarks the number of landmarks; more give tighter bounds but take more memory
+     * @param cacheCapacity the most paths to remember
+     */
+    public PathQueryService(CompactGraph graph, int numLandmarks, int cacheCapacity){
+        this.graph = graph;
+        int n = graph.numVertices;
+        CompactGraph reverse = graph.transpose();
+        this.symmetric = Arrays.equals(graph.offsets, reverse.offsets)
+                && Arrays.equals(graph.targets, reverse.targets)
+                && Arrays.equals(graph.weights, reverse.weights);
+
+        double[] degree = new double[n];
+        for (int v = 1; v <= n; v++){
+            degree[v-1] = graph.offsets[v] - graph.offsets[v-1];
+        }
+        landmarks = GraphAlgorithms.topK(degree, Math.min(numLandmarks, n));
+        fromLandmark = new int[landmarks.length][];
+        toLandmark = new int[landmarks.length][];
+        IntStream.range(0, landmarks.length).parallel().forEach(i -> {
+            fromLandmark[i] = distancesFrom(graph, landmarks[i]);
+            toLandmark[i] = symmetric ? fromLandmark[i] : distancesFrom(reverse, landmarks[i]);
+        });
+
+        cache = new LinkedHashMap<Long,List<Integer>>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long,List<Integer>> eldest){
+                return size() > cacheCapacity;
+            }
+        };
+        paths = new DijkstraPaths(n);
+    }
+
+    /**
+     * Computes the distance from a source to every vertex, breadth first if the graph is
+     * unweighted and with Dijkstra's algorithm on a monotone queue otherwise
+     * @return the distances indexed by vertex-1, INFINITY if unreachable
+     */
+    private static int[] distancesFrom(CompactGraph graph, int source){
+        int n = graph.numVertices;
+        if (graph.weights == null){
+            BreadthFirstPaths bfs = new BreadthFirstPaths(n);
+            bfs.search(graph, source);
+            return bfs.distances(n);
+        }
+        int[] dist = new int[n];
+        Arrays.fill(dist, GraphAlgorithms.INFINITY);
+        dist[source-1] = 0;
+        IndexedPriorityQueue queue = GraphAlgorithms.monotoneQueue(graph.maxWeight(), n + 1);
+        queue.push(0, source);
+        while (!queue.isEmpty()){
+            int u = queue.topElement();
+            queue.pop();
+            for (int e = graph.offsets[u-1]; e < graph.offsets[u]; e++){
+                int v = graph.targets[e];
+                int alt = dist[u-1] + graph.weights[e];
+                if (alt < dist[v-1]){
+                    if (dist[v-1] == GraphAlgorithms.INFINITY){
+                        queue.push(alt, v);
+                    }
+                    else{
+                        queue.changePriority(alt, v);
+                    }
+                    dist[v-1] = alt;
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * Returns the landmarks the bounds are computed from
+     * @return the landmark vertices, highest degree first
+     */
+    public int[] landmarks(){
+        return landmarks.clone();
+    }
+
+    /**
+     * Returns a lower bound on the distance between two vertices from the landmark tables
+     * @param source the first vertex
+     * @param target the last vertex
+     * @return a lower bound on the distance, or UNBOUNDED if the landmarks show there is no path
+     */
+    public int lowerBound(int source, int target){
+        int bound = heuristic(source, target);
+        return bound >= GraphAlgorithms.INFINITY ? UNBOUNDED : bound;
+    }
+
+    /**
+     * Returns an upper bound on the distance between two vertices from the landmark tables
+     * @param source the first vertex
+     * @param target the last vertex
+     * @return the length of the shortest path through a landmark, or UNBOUNDED if there is none
+     */
+    public int upperBound(int source, int target){
+        long best = UNBOUNDED;
+        for (int i = 0; i < landmarks.length; i++){
+            int toL = toLandmark[i][source-1];
+            int fromL = fromLandmark[i][target-1];
+            if (toL != GraphAlgorithms.INFINITY && fromL != GraphAlgorithms.INFINITY){
+                best = Math.min(best, (long) toL + fromL);
+            }
+        }
+        return (int) best;
+    }
+
+    /**
+     * The ALT lower bound, or INFINITY when a landmark proves target cannot be reached from v
+     */
+    private int heuristic(int v, int target){
+        int bound = 0;
+        for (int i = 0; i < landmarks.length; i++){
+            // L reaches v; if v reached the target then L would too
+            int fromV = fromLandmark[i][v-1];
+            int fromT = fromLandmark[i][target-1];
+            if (fromV != GraphAlgorithms.INFINITY){
+                if (fromT == GraphAlgorithms.INFINITY){
+                    return GraphAlgorithms.INFINITY;
+                }
+                bound = Math.max(bound, fromT - fromV);
+            }
+            // the target reaches L; if v reached the target then v would reach L too
+            int toV = toLandmark[i][v-1];
+            int toT = toLandmark[i][target-1];
+            if (toT != GraphAlgorithms.INFINITY){
+                if (toV == GraphAlgorithms.INFINITY){
+                    return GraphAlgorithms.INFINITY;
+                }
+                bound = Math.max(bound, toV - toT);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Finds a shortest path between two vertices, from the cache if it was asked for recently
+     * @param source the first vertex of the path
+     * @param target the last vertex of the path
+     * @return an unmodifiable list of the vertices along a shortest path, or an empty list if not connected
+     * @throws IllegalArgumentException if either vertex does not occur in the graph
+     */
+    public synchronized List<Integer> shortestPath(int source, int target){
+        if (!graph.containsVertex(source) || !graph.containsVertex(target)){
+            throw new IllegalArgumentException("a vertex did not appear in the graph");
+        }
+        List<Integer> path = cache.get(key(source, target));
+        if (path == null && symmetric){
+            List<Integer> reversed = cache.get(key(target, source));
+            if (reversed != null){
+                List<Integer> copy = new ArrayList<>(reversed);
+                Collections.reverse(copy);
+                path = Collections.unmodifiableList(copy);
+                cache.put(key(source, target), path);
+            }
+        }
+        if (path != null){
+            hits++;
+            return path;
+        }
+        misses++;
+        path = Collections.unmodifiableList(search(source, target));
+        cache.put(key(source, target), path);
+        return path;
+    }
+
+    private static long key(int source, int target){
+        return ((long) source << 32) | (target & 0xffffffffL);
+    }
+
+    /**
+     * A* search guided by the landmark lower bound, which is consistent, so DijkstraPaths
+     * settles the target on a shortest path and stops there
+     */
+    private List<Integer> search(int source, int target){
+        paths.search(graph, source, target, v -> heuristic(v, target));
+        return paths.path(target);
+    }
+
+    /**
+     * Returns the number of queries answered from the cache
+     * @return the number of cache hits
+     */
+    public synchronized long hits(){
+        return hits;
+    }
+
+    /**
+     * Returns the number of queries that needed a search
+     * @return the number of cache misses
+     */
+    public synchronized long misses(){
+        return misses;
+    }
+
+    /**
+     * Returns the number of paths currently cached
+     * @return the cache size
+     */
+    public synchronized int cacheSize(){
+        return cache.size();
+    }
+}
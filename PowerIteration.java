@@ -0,0 +1,171 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Influence rankings computed by power iteration: PageRank, personalized PageRank and
+ * eigenvector centrality. Each iteration is a pull sweep, where every vertex sums the scores
+ * of the vertices with an edge into it, so the vertices can be updated in parallel without
+ * two workers ever writing the same entry. Iteration stops when the scores change by less
+ * than the tolerance in total (L1 norm) or after the given number of iterations.
+ *
+ * Edge weights are ignored, since they are lengths rather than strengths. Vertices are the
+ * integers 1...n and scores are indexed by vertex-1.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class PowerIteration {
+
+    // the usual probability of following an edge rather than jumping
+    public static final double DAMPING = 0.85;
+
+    /**
+     * Computes PageRank, jumping to a uniformly random vertex
+     * @param graph the graph
+     * @param damping the probability of following an edge at each step
+     * @param tolerance the total change in the scores at which to stop
+     * @param maxIterations the most iterations to run
+     * @return the scores, summing to 1
+     */
+    public static double[] pageRank(CompactGraph graph, double damping, double tolerance, int maxIterations){
+        int n = graph.numVertices;
+        double[] jump = new double[n];
+        Arrays.fill(jump, 1.0 / n);
+        return pageRank(graph, jump, damping, tolerance, maxIterations);
+    }
+
+    /**
+     * Computes PageRank personalized to one vertex: every jump returns to the seed, so the
+     * scores measure how strongly each vertex is related to it
+     * @param graph the graph
+     * @param seed the vertex to personalize to
+     * @param damping the probability of following an edge at each step
+     * @param tolerance the total change in the scores at which to stop
+     * @param maxIterations the most iterations to run
+     * @return the scores, summing to 1
+     */
+    public static double[] personalizedPageRank(CompactGraph graph, int seed, double damping, double tolerance, int maxIterations){
+        double[] jump = new double[graph.numVertices];
+        jump[seed-1] = 1;
+        return pageRank(graph, jump, damping, tolerance, maxIterations);
+    }
+
+    /**
+     * PageRank with the given jump distribution. The score of a vertex with no out-edges is
+     * spread by the jump distribution, so the total stays 1
+     */
+    private static double[] pageRank(CompactGraph graph, double[] jump, double damping, double tolerance, int maxIterations){
+        int n = graph.numVertices;
+        CompactGraph in = graph.transpose(); // kept by the graph, and the graph itself if symmetric
+        int[] offsets = graph.offsets;
+        double[] rank = jump.clone();
+        double[] next = new double[n];
+        double[] share = new double[n]; // each vertex's score divided among its out-edges
+        for (int iteration = 0; iteration < maxIterations; iteration++){
+            double[] current = rank;
+            double[] updated = next;
+            IntStream.range(0, n).parallel().forEach(u -> {
+                int degree = offsets[u+1] - offsets[u];
+                share[u] = degree == 0 ? 0 : current[u] / degree;
+            });
+            double dangling = IntStream.range(0, n).parallel()
+                    .filter(u -> offsets[u+1] == offsets[u]).mapToDouble(u -> current[u]).sum();
+            IntStream.range(0, n).parallel().forEach(v -> {
+                double sum = 0;
+                for (int e = in.offsets[v]; e < in.offsets[v+1]; e++){
+                    sum += share[in.targets[e]-1];
+                }
+                updated[v] = damping * sum + (1 - damping + damping * dangling) * jump[v];
+            });
+            double change = change(current, updated);
+            rank = updated;
+            next = current;
+            if (change < tolerance){
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Computes eigenvector centrality, the principal eigenvector of the adjacency matrix, in
+     * which a vertex scores highly when the vertices pointing to it do. The iteration uses
+     * A + I, which has the same eigenvectors but cannot oscillate on bipartite graphs
+     * @param graph the graph
+     * @param tolerance the total change in the scores at which to stop
+     * @param maxIterations the most iterations to run
+     * @return the scores, scaled to unit length
+     */
+    public static double[] eigenvector(CompactGraph graph, double tolerance, int maxIterations){
+        int n = graph.numVertices;
+        CompactGraph in = graph.transpose();
+        double[] score = new double[n];
+        Arrays.fill(score, 1 / Math.sqrt(n));
+        double[] next = new double[n];
+        for (int iteration = 0; iteration < maxIterations; iteration++){
+            double[] current = score;
+            double[] updated = next;
+            IntStream.range(0, n).parallel().forEach(v -> {
+                double sum = current[v];
+                for (int e = in.offsets[v]; e < in.offsets[v+1]; e++){
+                    sum += current[in.targets[e]-1];
+                }
+                updated[v] = sum;
+            });
+            double norm = Math.sqrt(IntStream.range(0, n).parallel().mapToDouble(v -> updated[v] * updated[v]).sum());
+            if (norm == 0){
+                return updated;
+            }
+            IntStream.range(0, n).parallel().forEach(v -> updated[v] /= norm);
+            double change = change(current, updated);
+            score = updated;
+            next = current;
+            if (change < tolerance){
+                break;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Returns the L1 distance between two score vectors
+     */
+    private static double change(double[] a, double[] b){
+        return IntStream.range(0, a.length).parallel().mapToDouble(v -> Math.abs(a[v] - b[v])).sum();
+    }
+
+    /**
+     * Times PageRank, personalized PageRank and eigenvector centrality on a random graph.
+     * Usage: java graph.PowerIteration [vertices] [average degree]
+     */
+    public static void main(String[] args){
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Random random = new Random(361);
+        Graph<Integer> g = new Graph<>();
+        for (int v = 1; v <= n; v++){
+            g.addVertex(v);
+        }
+        for (int v = 1; v <= n; v++){
+            for (int i = 0; i < degree; i++){
+                g.addEdge(v, 1 + random.nextInt(n));
+            }
+        }
+        CompactGraph graph = new CompactGraph(g);
+
+        long start = System.nanoTime();
+        double[] rank = pageRank(graph, DAMPING, 1e-9, 100);
+        System.out.printf("PageRank %.0f ms, top %s%n", (System.nanoTime() - start) / 1e6,
+                Arrays.toString(GraphAlgorithms.topK(rank, 5)));
+        start = System.nanoTime();
+        double[] related = personalizedPageRank(graph, 1, DAMPING, 1e-6, 100);
+        System.out.printf("Personalized PageRank from 1 %.0f ms, top %s%n", (System.nanoTime() - start) / 1e6,
+                Arrays.toString(GraphAlgorithms.topK(related, 5)));
+        start = System.nanoTime();
+        double[] eigen = eigenvector(graph, 1e-9, 1000);
+        System.out.printf("Eigenvector centrality %.0f ms, top %s%n", (System.nanoTime() - start) / 1e6,
+                Arrays.toString(GraphAlgorithms.topK(eigen, 5)));
+    }
+}
@@ -1,29 +1,50 @@
 package util;
 
-import java.util.HashMap;
-import java.util.ArrayList;
-import java.util.Map;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * A priority queue class implemented using a min heap.
  * Priorities cannot be negative.
- * 
+ *
+ * The heap is kept in two parallel int arrays, one of priorities and one of elements, and the
+ * position of every element in the heap is kept in a third array indexed by the element
+ * itself, so elements must be non-negative. No operation allocates once the arrays are large
+ * enough: a queue created with a capacity never allocates again, and one created without a
+ * capacity doubles its arrays when an element or size beyond them first appears.
+ *
  * @author America Chambers
  * @version
  *
  */
-public class PriorityQueue {
+public class PriorityQueue implements IndexedPriorityQueue {
 
-	protected Map<Integer, Integer> location;
-	protected List<Pair<Integer, Integer>> heap;
+	// the number of slots a queue created without a capacity starts with
+	private static final int DEFAULT_CAPACITY = 16;
+
+	protected int[] priorities; // the heap: the priority in each slot
+	protected int[] elements;   // the heap: the element in each slot
+	protected int[] location;   // indexed by element; its slot in the heap, or -1 if absent
+	protected int size;
 
 	/**
 	 *  Constructs an empty priority queue
 	 */
 	public PriorityQueue() {
-		location = new HashMap<Integer, Integer>();
-		heap = new ArrayList<Pair<Integer, Integer>>();
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 *  Constructs an empty priority queue for the elements 0 to capacity-1,
+	 *  which never needs to allocate while its elements stay in that range
+	 *
+	 *	@param capacity one more than the largest element expected
+	 */
+	public PriorityQueue(int capacity) {
+		capacity = Math.max(1, capacity);
+		priorities = new int[capacity];
+		elements = new int[capacity];
+		location = new int[capacity];
+		Arrays.fill(location, -1);
 	}
 
 	/**
@@ -36,76 +57,69 @@ public class PriorityQueue {
 	 *	<dt><b>Preconditions:</b><dd>
 	 *	<ul>
 	 *	<li> The element does not already appear in the priority queue.</li>
+	 *	<li> The element is non-negative.</li>
 	 *	<li> The priority is non-negative.</li>
 	 *	</ul>
-	 *  
+	 *
 	 */
 	public void push(int priority, int element) {
-		
-		
 		// element must be unique
-		assert(!location.containsKey(element));		
-		
+		assert(!isPresent(element));
+
 		// priority must be non-negative
 		assert(priority >= 0);
-		
-		// add the new element to the end of the list
-		heap.add(new Pair<Integer,Integer>(priority, element));
 
-		location.put(element,heap.size()-1);		
+		if(element >= location.length) {
+			int old = location.length;
+			location = Arrays.copyOf(location, Math.max(element + 1, 2 * old));
+			Arrays.fill(location, old, location.length, -1);
+		}
+		if(size == elements.length) {
+			priorities = Arrays.copyOf(priorities, 2 * size);
+			elements = Arrays.copyOf(elements, 2 * size);
+		}
 
-		
-		// percolate up newly added value
-		percolateUp(heap.size()-1);
+		// percolate up from a new last slot
+		percolateUp(size++, priority, element);
 	}
 
 	/**
 	 *  Remove the highest priority element
-	 *  
+	 *
 	 *	<dt><b>Preconditions:</b><dd>
 	 *	<ul>
 	 *	<li> The priority queue is non-empty.</li>
 	 *	</ul>
-	 *  
+	 *
 	 */
 	public void pop()  {
 		// heap must be non-empty
-		if(heap.size() == 0) {
+		if(size == 0) {
 			throw new AssertionError("heap is empty");
 		}
-		assert (heap.size() > 0);
 
-		int element = heap.get(0).element;
+		location[elements[0]] = -1;
+		size--;
 
-		// remove element from hash map
-		location.remove(element);
-
-		// copy leaf node to root (overwriting the old root value)
-		// and update its location in map
-		heap.set(0, heap.get(heap.size()-1));		
-		int new_root_element = heap.get(0).element;		
-		location.put(new_root_element, 0);
-		
-		// now we can remove leaf node from heap
-		heap.remove(heap.size()-1);
-
-		// push new root down to proper place
-		pushDown(0);
+		// move the last leaf into the root's slot and push it down to its proper place
+		if(size > 0) {
+			pushDown(0, priorities[size], elements[size]);
+		}
 	}
 
 
 	/**
 	 *  Returns the highest priority in the queue
 	 *  @return highest priority value
-	 *  
+	 *
 	 *	<dt><b>Preconditions:</b><dd>
 	 *	<ul>
 	 *	<li> The priority queue is non-empty.</li>
 	 *	</ul>
 	 */
 	public int topPriority() {
-		assert(heap.size() > 0);
-		return heap.get(0).priority;		  
+		assert(size > 0);
+		return priorities[0];
 	}
 
 
@@ -119,18 +133,18 @@ public class PriorityQueue {
 	 *	</ul>
 	 */
 	public int topElement() {
-		assert(heap.size() > 0);
-		return heap.get(0).element;
+		assert(size > 0);
+		return elements[0];
 	}
 
 
 	/**
 	 *  Change the priority of an element already in the
 	 *  priority queue.
-	 *  
+	 *
 	 *  @param newpriority the new priority
-	 *  @param element element whose priority is to be changed  
-	 *  
+	 *  @param element element whose priority is to be changed
+	 *
 	 *	<dt><b>Preconditions:</b><dd>
 	 *	<ul>
 	 *	<li> The element exists in the priority queue</li>
@@ -139,29 +153,23 @@ public class PriorityQueue {
 	 */
 	public void changePriority(int newpriority, int element) {
 		// make sure this element exists in the priority queue
-		
-		assert(location.containsKey(element));		
-//		System.out.println(element);
-//		System.out.println(location.get(element));
-		int original_index = location.get(element);
-
-		// update the priority
-		heap.get(original_index).priority = newpriority;
-
-		// given this new priority, try to percolate up
-		int new_index = percolateUp(original_index);
-
-		// if percolating up did not move the element, then
-		// try pushing it down
-		if(new_index == original_index) {
-			pushDown(original_index);
+		assert(isPresent(element));
+		int original_index = location[element];
+
+		// given this new priority, try to percolate up, and
+		// if that does not move the element, try pushing it down
+		if(original_index > 0 && newpriority < priorities[parent(original_index)]) {
+			percolateUp(original_index, newpriority, element);
+		}
+		else {
+			pushDown(original_index, newpriority, element);
 		}
 	}
 
 
 	/**
 	 *  Gets the priority of the element
-	 *  
+	 *
 	 *  @param element the element whose priority is returned
 	 *  @return the priority value
 	 *
@@ -171,8 +179,8 @@ public class PriorityQueue {
 	 *	</ul>
 	 */
 	public int getPriority(int element) {
-		assert(location.containsKey(element));
-		return heap.get(location.get(element)).priority;
+		assert(isPresent(element));
+		return priorities[location[element]];
 	}
 
 	/**
@@ -180,7 +188,7 @@ public class PriorityQueue {
 	 *  @return true if the queue contains no elements, false otherwise
 	 */
 	public boolean isEmpty() {
-		return heap.size() == 0;
+		return size == 0;
 	}
 
 	/**
@@ -188,15 +196,18 @@ public class PriorityQueue {
 	 *  @return true if the element exists, false otherwise
 	 */
 	public boolean isPresent(int element) {
-		return location.containsKey(element);
+		return element >= 0 && element < location.length && location[element] >= 0;
 	}
 
 	/**
 	 *  Removes all elements from the priority queue
 	 */
 	public void clear() {
-		heap.clear();
-		location.clear();
+		// only the elements still in the heap have a location to reset
+		for(int i = 0; i < size; i++) {
+			location[elements[i]] = -1;
+		}
+		size = 0;
 	}
 
 	/**
@@ -204,172 +215,112 @@ public class PriorityQueue {
 	 *  @return number of elements in the priority queue
 	 */
 	public int size() {
-		return heap.size();
+		return size;
 	}
 
 	/**
-	 * Print the underlying list representation
+	 * Print the underlying array representation
 	 */
 	protected void printHeap() {
 		System.out.println("Heap:");
-		for(int i = 0; i < heap.size(); ++i) {
-			Pair<Integer, Integer> pair = heap.get(i);
-			System.out.println("Priority: " + pair.priority + " Element: " + pair.element);
+		for(int i = 0; i < size; ++i) {
+			System.out.println("Priority: " + priorities[i] + " Element: " + elements[i]);
 		}
 		System.out.println();
 	}
 
 	/**
-	 * Print the entries in the location map
+	 * Print the entries in the location index
 	 */
 	protected void printMap() {
 		System.out.println("Map:");
-		for(Map.Entry<Integer, Integer> entry : location.entrySet()){
-			System.out.println("key: " + entry.getKey() + ", " + "value: " + entry.getValue());
+		for(int i = 0; i < size; ++i) {
+			System.out.println("key: " + elements[i] + ", " + "value: " + location[elements[i]]);
 		}
 		System.out.println();
 	}
 
 	/**
-	 * Push down the root element
-	 * @return the index in the list where the element is finally stored
-	 */
-	private int pushDownRoot() {
-		return pushDown(0);
-	}
-
-	/**
-	 * Percolate up the last leaf in the heap, i.e. the most recently 
-	 * added element which is stored in the last slot in the list
-	 * 
-	 * @return the index in the list where the element is finally stored
+	 * Push an element down from a given slot, moving smaller children up into the
+	 * hole instead of swapping at every level
+	 * @param start_index the slot to start from, whose old contents are overwritten
+	 * @param priority the priority of the element being placed
+	 * @param element the element being placed
+	 * @return the index in the heap where the element is finally stored
 	 */
-	private int percolateUpLeaf(){	
-		return percolateUp(heap.size()-1);
-	}
-
-	/**
-	 * Push down a given element 
-	 * @param start_index the index of the element to be pushed down
-	 * @return the index in the list where the element is finally stored
-	 */
-	private int pushDown(int start_index) {
+	private int pushDown(int start_index, int priority, int element) {
 		int curr = start_index;
 		int l = left(curr);
-		int r = right(curr);
-		int swap_index;
-
-
-		while(hasTwoChildren(curr)) {
+		while(l < size) {
+			// pick the child with the smallest priority
+			int swap_index = (l + 1 < size && priorities[l + 1] < priorities[l]) ? l + 1 : l;
 
-			swap_index = (heap.get(l).priority < heap.get(r).priority) ? l : r;
-
-			// swap_index now holds the index of the child with the smallest priority			
-			
-			// if curr's priority is smaller than its smallest child, then curr has found its proper place
-			if(heap.get(curr).priority < heap.get(swap_index).priority) {
+			// if the element's priority is smaller than its smallest child, then it has found its proper place
+			if(priority < priorities[swap_index]) {
 				break;
 			}
-			else{
-
-				// move curr to the position of its smallest child
-				// move its smallest child up to now occupy the parent spot
-				swap(curr, swap_index);
-
-				// update in preparation for the next iteration
-				curr = swap_index;
-				l = left(curr);
-				r = right(curr);
-			}
-		}
-
-		// Check if curr needs to be swapped with its one (left) child
-		if(l < heap.size() && heap.get(l).priority < heap.get(curr).priority){
-			swap(curr, l);
-			curr = l;
+			move(swap_index, curr);
+			curr = swap_index;
+			l = left(curr);
 		}
+		place(curr, priority, element);
 		return curr;
 	}
 
 	/**
-	 * Percolate up a given element
-	 * @param start_index the element to be percolated up
-	 * @return the index in the list where the element is finally stored
+	 * Percolate an element up from a given slot, moving larger parents down into the hole
+	 * @param start_index the slot to start from, whose old contents are overwritten
+	 * @param priority the priority of the element being placed
+	 * @param element the element being placed
+	 * @return the index in the heap where the element is finally stored
 	 */
-	private int percolateUp(int start_index) {
+	private int percolateUp(int start_index, int priority, int element) {
 		int curr = start_index;
-		int p = parent(curr);
-		while(curr > 0 && heap.get(curr).priority < heap.get(p).priority){
-			swap(curr, p);
-			curr = p;
-			p = parent(curr);
+		while(curr > 0 && priority < priorities[parent(curr)]) {
+			move(parent(curr), curr);
+			curr = parent(curr);
 		}
+		place(curr, priority, element);
 		return curr;
 	}
 
 	/**
-	 * Returns true if element is a leaf in the heap
-	 * @param i index of element in heap
-	 * @return true if element is a leaf
+	 * Moves the entry in one slot to another, updating its location
+	 * @param from the slot to move from
+	 * @param to the slot to move to
 	 */
-	private boolean isLeaf(int i){
-		return (left(i) > heap.size()) && (right(i) > heap.size());
+	private void move(int from, int to) {
+		priorities[to] = priorities[from];
+		elements[to] = elements[from];
+		location[elements[to]] = to;
 	}
 
 	/**
-	 * Returns true if element has two children in the heap
-	 * @param i index of element in the heap
-	 * @return true if element in heap has two children
+	 * Stores an element in a slot, updating its location
+	 * @param i the slot
+	 * @param priority the element's priority
+	 * @param element the element
 	 */
-	private boolean hasTwoChildren(int i) {
-		return (left(i) < heap.size()) && (right(i) < heap.size());
-	}
-
-	/**
-	 * Swaps two elements in the priority queue by updating BOTH
-	 * the list representing the heap AND the map
-	 * @param i element to be swapped
-	 * @param j element to be swapped
-	 */
-	private void swap(int i, int j) {
-		Pair<Integer, Integer> temp = heap.get(i);
-
-		heap.set(i, heap.get(j));
-		heap.set(j, temp);
-
-		int key = heap.get(j).element;
-		location.put(key, j);
-
-		key = heap.get(i).element;
-		location.put(key, i);
+	private void place(int i, int priority, int element) {
+		priorities[i] = priority;
+		elements[i] = element;
+		location[element] = i;
 	}
 
 	/**
 	 * Computes the index of the element's left child
-	 * @param parent index of element in list
-	 * @return index of element's left child in list
+	 * @param parent index of element in heap
+	 * @return index of element's left child in heap
 	 */
 	private int left(int parent) {
 		return 2*parent + 1;
-
-	}
-
-	/**
-	 * Computes the index of the element's right child
-	 * @param parent index of element in list
-	 * @return index of element's right child in list
-	 */
-	private int right(int parent) {
-		return 2*parent + 2;
-
 	}
 
 	/**
 	 * Computes the index of the element's parent
-	 * @param child index of element in list
-	 * @return index of element's parent in list
+	 * @param child index of element in heap
+	 * @return index of element's parent in heap
 	 */
-
 	private int parent(int child) {
 		return (child-1)/2;
 	}
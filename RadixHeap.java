@@ -0,0 +1,195 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * A monotone indexed priority queue for integer priorities, kept as a radix heap. Every
+ * element sits in one of 32 buckets chosen by the highest bit in which its priority differs
+ * from the last minimum: bucket 0 holds the priorities equal to it and bucket b those that
+ * first differ in bit b-1. Pushing or changing a priority links the element into its bucket in
+ * constant time. When bucket 0 runs out, pop finds the smallest priority in the next non-empty
+ * bucket and spreads that bucket over the lower ones, so an element only ever moves down, at
+ * most 31 times. Unlike BucketQueue, the cost does not grow with the spread of priorities.
+ *
+ * The queue is monotone: no priority may be pushed or changed to less than the current top
+ * priority, which holds for Dijkstra's algorithm. Elements and priorities must be
+ * non-negative, and no operation allocates once the arrays are large enough.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class RadixHeap implements IndexedPriorityQueue {
+
+	private static final int NONE = -1;
+	private static final int BUCKETS = 32;
+
+	private final int[] head = new int[BUCKETS]; // the first element of each bucket, or NONE
+
+	private int[] priority; // indexed by element
+	private int[] next;     // indexed by element; the next element in its bucket, or NONE
+	private int[] prev;     // indexed by element; the previous element in its bucket, or NONE
+	private int[] bucket;   // indexed by element; its bucket, or NONE if absent
+
+	private int last; // the last minimum, no larger than any priority in the queue
+	private int size;
+
+	/**
+	 *  Constructs an empty radix heap for the elements 0 to capacity-1
+	 *  @param capacity one more than the largest element expected
+	 */
+	public RadixHeap(int capacity) {
+		Arrays.fill(head, NONE);
+		capacity = Math.max(1, capacity);
+		priority = new int[capacity];
+		next = new int[capacity];
+		prev = new int[capacity];
+		bucket = new int[capacity];
+		Arrays.fill(bucket, NONE);
+	}
+
+	@Override
+	public void push(int newpriority, int element) {
+		assert(!isPresent(element));
+		assert(size == 0 || newpriority >= last);
+		if(element >= bucket.length) {
+			int old = bucket.length;
+			int length = Math.max(element + 1, 2 * old);
+			priority = Arrays.copyOf(priority, length);
+			next = Arrays.copyOf(next, length);
+			prev = Arrays.copyOf(prev, length);
+			bucket = Arrays.copyOf(bucket, length);
+			Arrays.fill(bucket, old, length, NONE);
+		}
+		if(size == 0) {
+			// an empty queue may restart from a lower priority
+			last = Math.min(last, newpriority);
+		}
+		size++;
+		priority[element] = newpriority;
+		insert(element);
+	}
+
+	@Override
+	public void pop() {
+		if(size == 0) {
+			throw new AssertionError("heap is empty");
+		}
+		redistribute();
+		int element = head[0];
+		unlink(element);
+		bucket[element] = NONE;
+		size--;
+	}
+
+	@Override
+	public int topPriority() {
+		assert(size > 0);
+		redistribute();
+		return last;
+	}
+
+	@Override
+	public int topElement() {
+		assert(size > 0);
+		redistribute();
+		return head[0];
+	}
+
+	@Override
+	public void changePriority(int newpriority, int element) {
+		assert(isPresent(element));
+		assert(size == 0 || newpriority >= last);
+		unlink(element);
+		priority[element] = newpriority;
+		insert(element);
+	}
+
+	@Override
+	public int getPriority(int element) {
+		assert(isPresent(element));
+		return priority[element];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean isPresent(int element) {
+		return element >= 0 && element < bucket.length && bucket[element] != NONE;
+	}
+
+	@Override
+	public void clear() {
+		for(int b = 0; b < BUCKETS; b++) {
+			for(int element = head[b]; element != NONE; element = next[element]) {
+				bucket[element] = NONE;
+			}
+			head[b] = NONE;
+		}
+		last = 0;
+		size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Makes bucket 0 non-empty, if it is not already, by moving the last minimum up to the
+	 * smallest priority of the first non-empty bucket and relinking that bucket's elements.
+	 * The queue must be non-empty
+	 */
+	private void redistribute() {
+		if(head[0] != NONE) {
+			return;
+		}
+		int b = 1;
+		while(head[b] == NONE) {
+			b++;
+		}
+		int min = Integer.MAX_VALUE;
+		for(int element = head[b]; element != NONE; element = next[element]) {
+			min = Math.min(min, priority[element]);
+		}
+		last = min;
+		int element = head[b];
+		head[b] = NONE;
+		while(element != NONE) {
+			int following = next[element];
+			insert(element);
+			element = following;
+		}
+	}
+
+	/**
+	 * Links an element into the bucket for its priority
+	 */
+	private void insert(int element) {
+		int b = 32 - Integer.numberOfLeadingZeros(priority[element] ^ last);
+		int first = head[b];
+		next[element] = first;
+		prev[element] = NONE;
+		if(first != NONE) {
+			prev[first] = element;
+		}
+		head[b] = element;
+		bucket[element] = b;
+	}
+
+	/**
+	 * Removes an element from its bucket
+	 */
+	private void unlink(int element) {
+		if(prev[element] != NONE) {
+			next[prev[element]] = next[element];
+		}
+		else {
+			head[bucket[element]] = next[element];
+		}
+		if(next[element] != NONE) {
+			prev[next[element]] = prev[element];
+		}
+	}
+}
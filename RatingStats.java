@@ -0,0 +1,170 @@
+package data;
+
+import java.util.Collection;
+
+/**
+ * Running aggregates of a set of ratings: their number, sum, mean, variance, smallest and
+ * largest value, and a histogram by half star. A Movie keeps one over the ratings it has
+ * received and a Reviewer over the ratings it has given, updated as each rating is added, so
+ * every getter is a field read rather than a pass over a map of ratings.
+ *
+ * The variance is kept with Welford's method, which adds or removes one rating at a time
+ * without the loss of precision of subtracting squared sums. Replacing a rating removes the
+ * old value first; only if it was the smallest or largest are the remaining ratings scanned.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class RatingStats {
+
+	// the number of histogram bins: 0, 0.5, 1, ..., 5 stars
+	public static final int HALF_STARS = 11;
+
+	private int count;
+	private double sum;
+	private double mean;   // the running mean of Welford's method
+	private double m2;     // the sum of squared differences from the mean
+	private double min;
+	private double max;
+	private final int[] histogram = new int[HALF_STARS];
+
+	/**
+	 * Adds a rating
+	 * @param rating the rating
+	 */
+	void add(double rating){
+		if(count == 0){
+			min = rating;
+			max = rating;
+		}
+		else{
+			min = Math.min(min, rating);
+			max = Math.max(max, rating);
+		}
+		count++;
+		sum += rating;
+		double delta = rating - mean;
+		mean += delta / count;
+		m2 += delta * (rating - mean);
+		histogram[bin(rating)]++;
+	}
+
+	/**
+	 * Removes a rating that was added before
+	 * @param rating the rating
+	 * @param remaining the ratings left, which are scanned for a new smallest or largest rating
+	 * if the one removed was either
+	 */
+	void remove(double rating, Collection<Double> remaining){
+		count--;
+		histogram[bin(rating)]--;
+		if(count == 0){
+			sum = 0;
+			mean = 0;
+			m2 = 0;
+			min = 0;
+			max = 0;
+			return;
+		}
+		sum -= rating;
+		double oldMean = mean;
+		mean = (oldMean * (count + 1) - rating) / count;
+		m2 = Math.max(0, m2 - (rating - mean) * (rating - oldMean));
+		if(rating == min || rating == max){
+			min = Double.POSITIVE_INFINITY;
+			max = Double.NEGATIVE_INFINITY;
+			for(double r : remaining){
+				min = Math.min(min, r);
+				max = Math.max(max, r);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of ratings
+	 * @return the number of ratings
+	 */
+	public int getCount(){
+		return count;
+	}
+
+	/**
+	 * Returns the sum of the ratings
+	 * @return the sum, or 0 if there are no ratings
+	 */
+	public double getSum(){
+		return sum;
+	}
+
+	/**
+	 * Returns the mean rating
+	 * @return the sum divided by the count, or 0 if there are no ratings
+	 */
+	public double getMean(){
+		return count == 0 ? 0 : sum / count;
+	}
+
+	/**
+	 * Returns the sample variance of the ratings
+	 * @return the variance, or 0 if there are fewer than two ratings
+	 */
+	public double getVariance(){
+		return count < 2 ? 0 : m2 / (count - 1);
+	}
+
+	/**
+	 * Returns the sample standard deviation of the ratings
+	 * @return the standard deviation, or 0 if there are fewer than two ratings
+	 */
+	public double getStandardDeviation(){
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * Returns the smallest rating
+	 * @return the smallest rating, or 0 if there are no ratings
+	 */
+	public double getMin(){
+		return min;
+	}
+
+	/**
+	 * Returns the largest rating
+	 * @return the largest rating, or 0 if there are no ratings
+	 */
+	public double getMax(){
+		return max;
+	}
+
+	/**
+	 * Returns the number of ratings of a number of half stars, rounded to the nearest
+	 * @param halfStars 0 to HALF_STARS-1; 7 counts the ratings of 3.5
+	 * @return the number of ratings in that bin
+	 */
+	public int getHistogramCount(int halfStars){
+		return histogram[halfStars];
+	}
+
+	/**
+	 * Returns the histogram of the ratings by half star
+	 * @return a copy of the counts, indexed by the number of half stars
+	 */
+	public int[] getHistogram(){
+		return histogram.clone();
+	}
+
+	/**
+	 * The histogram bin of a rating; ratings beyond five stars share the last bin
+	 */
+	private static int bin(double rating){
+		return (int) Math.min(HALF_STARS - 1, Math.max(0, Math.round(rating * 2)));
+	}
+
+	/**
+	 * Returns a one line summary of the ratings
+	 * @return the count, mean, standard deviation and range
+	 */
+	public String toString(){
+		return String.format("%d ratings, mean %.2f, std dev %.2f, range %.1f-%.1f",
+				count, getMean(), getStandardDeviation(), min, max);
+	}
+}
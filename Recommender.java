@@ -0,0 +1,315 @@
+package data;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import util.DataLoader;
+
+/**
+ * Item-based top-N movie recommendations for a reviewer.
+ *
+ * When the recommender is built, every movie's ratings are centered on the movie's mean. Each
+ * pair of movies with reviewers in common gets an adjusted cosine similarity, shrunk towards
+ * zero when few reviewers are shared. Only the most similar movies of each movie are kept, in
+ * primitive arrays. A request then walks the neighbor lists of the movies the reviewer rated.
+ * Each unseen neighbor is scored by the similarity-weighted centered ratings of the
+ * reviewer's movies, and a bounded heap picks the best N. The cost depends only on how many
+ * movies the reviewer rated, not on the size of the catalog.
+ *
+ * Movies are numbered 1...n, as DataLoader numbers them. Requests may be made from several
+ * threads at once.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class Recommender {
+
+	// the number of shared reviewers at which a similarity keeps half its value
+	private static final double SHRINKAGE = 10;
+
+	// pulls a prediction resting on little similarity back towards the movie's mean
+	private static final double PRIOR_WEIGHT = 1;
+
+	private final int numMovies;
+	private final double[] mean;         // indexed by movie-1
+	private final int[][] neighbors;     // indexed by movie-1; the most similar movies first
+	private final double[][] similarity; // parallel to neighbors
+
+	// per thread scratch space, indexed by movie-1, for building and answering requests
+	private final ThreadLocal<Workspace> workspace;
+
+	/**
+	 * Builds the neighbor lists of every movie
+	 * @param movies the movies, keyed by ids numbered 1...n
+	 * @param numNeighbors the most neighbors to keep per movie
+	 */
+	public Recommender(Map<Integer, Movie> movies, int numNeighbors){
+		numMovies = movies.size();
+		workspace = ThreadLocal.withInitial(() -> new Workspace(numMovies));
+		mean = new double[numMovies];
+
+		// each reviewer's movies and centered ratings, as parallel arrays
+		Map<Integer, Integer> reviewerIndex = new HashMap<>();
+		int[] count = new int[0];
+		for(int m = 1; m <= numMovies; m++){
+			for(Map.Entry<Integer, Double> entry : movies.get(m).getRatings().entrySet()){
+				Integer index = reviewerIndex.get(entry.getKey());
+				if(index == null){
+					index = reviewerIndex.size();
+					reviewerIndex.put(entry.getKey(), index);
+					if(index >= count.length){
+						count = Arrays.copyOf(count, Math.max(16, 2 * count.length));
+					}
+				}
+				count[index]++;
+			}
+			mean[m-1] = movies.get(m).getMeanRating();
+		}
+		int numReviewers = reviewerIndex.size();
+		int[][] rated = new int[numReviewers][];
+		double[][] centered = new double[numReviewers][];
+		for(int r = 0; r < numReviewers; r++){
+			rated[r] = new int[count[r]];
+			centered[r] = new double[count[r]];
+		}
+		int[] filled = new int[numReviewers];
+		double[] norm = new double[numMovies]; // the length of each movie's centered rating vector
+		// the reviewers of each movie, parallel to their centered ratings
+		int[][] reviewersOf = new int[numMovies][];
+		double[][] valuesOf = new double[numMovies][];
+		for(int m = 1; m <= numMovies; m++){
+			Map<Integer, Double> ratings = movies.get(m).getRatings();
+			reviewersOf[m-1] = new int[ratings.size()];
+			valuesOf[m-1] = new double[ratings.size()];
+			int i = 0;
+			for(Map.Entry<Integer, Double> entry : ratings.entrySet()){
+				int r = reviewerIndex.get(entry.getKey());
+				double value = entry.getValue() - mean[m-1];
+				rated[r][filled[r]] = m;
+				centered[r][filled[r]++] = value;
+				reviewersOf[m-1][i] = r;
+				valuesOf[m-1][i++] = value;
+				norm[m-1] += value * value;
+			}
+			norm[m-1] = Math.sqrt(norm[m-1]);
+		}
+
+		neighbors = new int[numMovies][];
+		similarity = new double[numMovies][];
+		IntStream.rangeClosed(1, numMovies).parallel().forEach(m -> {
+			Workspace space = workspace.get();
+			double[] dot = space.numerator;
+			int[] shared = space.shared;
+			int[] touched = space.touched;
+			int distinct = 0;
+			// accumulate the dot product with every movie that shares a reviewer with m
+			for(int i = 0; i < reviewersOf[m-1].length; i++){
+				int r = reviewersOf[m-1][i];
+				double value = valuesOf[m-1][i];
+				for(int k = 0; k < rated[r].length; k++){
+					int other = rated[r][k];
+					if(other != m){
+						if(shared[other-1]++ == 0){
+							touched[distinct++] = other;
+						}
+						dot[other-1] += value * centered[r][k];
+					}
+				}
+			}
+			int positive = 0;
+			for(int t = 0; t < distinct; t++){
+				int other = touched[t];
+				double lengths = norm[m-1] * norm[other-1];
+				double sim = lengths == 0 ? 0 : dot[other-1] / lengths * shared[other-1] / (shared[other-1] + SHRINKAGE);
+				dot[other-1] = sim;
+				shared[other-1] = 0;
+				if(sim > 0){
+					space.candidates[positive++] = other;
+				}
+			}
+			int[] best = topN(space.candidates, positive, dot, numNeighbors, space.heap);
+			double[] sims = new double[best.length];
+			for(int i = 0; i < best.length; i++){
+				sims[i] = dot[best[i]-1];
+			}
+			for(int t = 0; t < distinct; t++){
+				dot[touched[t]-1] = 0;
+			}
+			neighbors[m-1] = best;
+			similarity[m-1] = sims;
+		});
+	}
+
+	/**
+	 * Recommends the movies a reviewer has not rated that score highest
+	 * @param reviewer the reviewer
+	 * @param n the number of movies to recommend
+	 * @return up to n movie ids, best first
+	 */
+	public int[] recommend(Reviewer reviewer, int n){
+		Workspace space = workspace.get();
+		double[] numerator = space.numerator;
+		double[] weight = space.weight;
+		int[] touched = space.touched;
+		int distinct = 0;
+		for(Map.Entry<Integer, Double> entry : reviewer.getRatings().entrySet()){
+			int m = entry.getKey();
+			if(m < 1 || m > numMovies){
+				continue;
+			}
+			double deviation = entry.getValue() - mean[m-1];
+			for(int i = 0; i < neighbors[m-1].length; i++){
+				int candidate = neighbors[m-1][i];
+				if(weight[candidate-1] == 0){
+					touched[distinct++] = candidate;
+				}
+				numerator[candidate-1] += similarity[m-1][i] * deviation;
+				weight[candidate-1] += similarity[m-1][i];
+			}
+		}
+		// turn the sums into predicted ratings, dropping movies the reviewer has seen
+		int unseen = 0;
+		for(int t = 0; t < distinct; t++){
+			int candidate = touched[t];
+			double predicted = mean[candidate-1] + numerator[candidate-1] / (weight[candidate-1] + PRIOR_WEIGHT);
+			weight[candidate-1] = 0;
+			if(reviewer.ratedMovie(candidate)){
+				numerator[candidate-1] = 0;
+			}
+			else{
+				numerator[candidate-1] = predicted;
+				touched[unseen++] = candidate;
+			}
+		}
+		int[] best = topN(touched, unseen, numerator, n, space.heap);
+		for(int t = 0; t < unseen; t++){
+			numerator[touched[t]-1] = 0;
+		}
+		return best;
+	}
+
+	/**
+	 * Recommends movies for many reviewers at once, spread over the common fork-join pool
+	 * @param reviewers the reviewers
+	 * @param n the number of movies to recommend to each
+	 * @return the recommendations keyed by reviewer id
+	 */
+	public Map<Integer, int[]> recommendAll(Collection<Reviewer> reviewers, int n){
+		return reviewers.parallelStream()
+				.collect(Collectors.toConcurrentMap(Reviewer::getReviewerId, r -> recommend(r, n)));
+	}
+
+	/**
+	 * Returns the movies most similar to a movie
+	 * @param movieId the movie
+	 * @return the ids of its neighbors, most similar first
+	 */
+	public int[] neighbors(int movieId){
+		return neighbors[movieId-1].clone();
+	}
+
+	/**
+	 * Picks the n candidates with the highest scores with a bounded min-heap, whose root is
+	 * always the weakest of the best n seen so far
+	 * @param candidates movie ids; only the first count are used
+	 * @param score scores indexed by movie-1
+	 * @param heap scratch space of at least min(n, count) entries
+	 * @return up to n movie ids, highest score first
+	 */
+	private static int[] topN(int[] candidates, int count, double[] score, int n, int[] heap){
+		int size = 0;
+		for(int i = 0; i < count && n > 0; i++){
+			int c = candidates[i];
+			if(size < n){
+				// sift the new entry up
+				int child = size++;
+				while(child > 0 && score[heap[(child-1)/2]-1] > score[c-1]){
+					heap[child] = heap[(child-1)/2];
+					child = (child-1)/2;
+				}
+				heap[child] = c;
+			}
+			else if(score[c-1] > score[heap[0]-1]){
+				siftDown(heap, size, c, score);
+			}
+		}
+		// repeatedly remove the minimum into the back of the result
+		int[] best = new int[size];
+		for(int i = size - 1; i >= 0; i--){
+			best[i] = heap[0];
+			siftDown(heap, i, heap[i], score);
+		}
+		return best;
+	}
+
+	/**
+	 * Places c at the root of a heap of the given size and sifts it down
+	 */
+	private static void siftDown(int[] heap, int size, int c, double[] score){
+		int parent = 0;
+		while(2 * parent + 1 < size){
+			int child = 2 * parent + 1;
+			if(child + 1 < size && score[heap[child+1]-1] < score[heap[child]-1]){
+				child++;
+			}
+			if(score[heap[child]-1] >= score[c-1]){
+				break;
+			}
+			heap[parent] = heap[child];
+			parent = child;
+		}
+		if(size > 0){
+			heap[parent] = c;
+		}
+	}
+
+	/**
+	 * One thread's scratch arrays; every entry is returned to zero after use
+	 */
+	private static class Workspace {
+		final double[] numerator;
+		final double[] weight;
+		final int[] shared;
+		final int[] touched;
+		final int[] candidates;
+		final int[] heap;
+
+		Workspace(int n){
+			numerator = new double[n];
+			weight = new double[n];
+			shared = new int[n];
+			touched = new int[n];
+			candidates = new int[n];
+			heap = new int[n];
+		}
+	}
+
+	/**
+	 * Times building the recommender, one request, and a batch for every reviewer.
+	 * Usage: java data.Recommender [ratings_file] [movie_title_file]
+	 */
+	public static void main(String[] args){
+		DataLoader info = new DataLoader();
+		info.loadData(args.length > 1 ? args[1] : "movies.csv", args.length > 0 ? args[0] : "ratings.csv");
+		Map<Integer, Movie> movies = info.getMovies();
+
+		long start = System.nanoTime();
+		Recommender recommender = new Recommender(movies, 50);
+		System.out.printf("Built neighbor lists for %d movies in %.0f ms%n", movies.size(), (System.nanoTime() - start) / 1e6);
+
+		Reviewer first = info.getReviewers().values().iterator().next();
+		recommender.recommend(first, 10);
+		start = System.nanoTime();
+		int[] top = recommender.recommend(first, 10);
+		System.out.printf("One request in %.3f ms:%n", (System.nanoTime() - start) / 1e6);
+		for(int m : top){
+			System.out.println("  " + movies.get(m).getTitle());
+		}
+
+		start = System.nanoTime();
+		Map<Integer, int[]> all = recommender.recommendAll(info.getReviewers().values(), 10);
+		System.out.printf("%d reviewers in %.0f ms%n", all.size(), (System.nanoTime() - start) / 1e6);
+	}
+}
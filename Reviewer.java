@@ -19,6 +19,9 @@ public class Reviewer {
 	// given by the user
 	private Map<Integer, Double> listByMovieId;
 
+	// running aggregates of the ratings given
+	private RatingStats stats = new RatingStats();
+
 
 	/**
 	 * Create a new reviewer with given id 
@@ -32,7 +35,11 @@ public class Reviewer {
 	 * Add a movie to the reviewer's list of rated movies
 	 */
 	public void addMovie(int movieId, double rating){
-		listByMovieId.put(movieId, rating);
+		Double old = listByMovieId.put(movieId, rating);
+		if(old != null){ // rating a movie again replaces the earlier rating
+			stats.remove(old, listByMovieId.values());
+		}
+		stats.add(rating);
 	}
 
 
@@ -44,6 +51,22 @@ public class Reviewer {
 		return  listByMovieId;
 	}
 
+	/**
+	 * Returns the mean of the ratings the reviewer gave, or 0
+	 * if the reviewer has rated nothing
+	 */
+	public double getMeanRating(){
+		return stats.getMean();
+	}
+
+	/**
+	 * Returns the running aggregates of the ratings the reviewer gave:
+	 * count, sum, mean, variance, range and histogram by half star
+	 */
+	public RatingStats getRatingStats(){
+		return stats;
+	}
+
 	/**
 	 * Returns the rating for a movie or -1
 	 * if the reviewer never rated the movie
@@ -0,0 +1,185 @@
+package data;
+
+/**
+ * The reviewers two movies have in common and how closely their ratings of the two agree,
+ * used to explain why two movies are linked in the graph.
+ *
+ * The shared reviewers are found by intersecting the movies' sorted reviewer id arrays. Lists
+ * of similar length are merged in one pass. When one list is much longer, each id of the
+ * shorter list is found in the longer one by galloping: doubling a step from the last match
+ * until it passes the id, then binary searching the last step. That costs time for the
+ * shorter list times the log of the gap between matches, so a niche movie shares reviewers
+ * with a blockbuster as fast as with another niche movie.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class SharedRatings {
+
+	// galloping replaces merging once the longer list is this many times the shorter
+	private static final int GALLOP_RATIO = 8;
+
+	private final int[] reviewers;  // in increasing order
+	private final double[] first;   // the ratings of the first movie, parallel to reviewers
+	private final double[] second;  // the ratings of the second movie, parallel to reviewers
+
+	private SharedRatings(int[] reviewers, double[] first, double[] second){
+		this.reviewers = reviewers;
+		this.first = first;
+		this.second = second;
+	}
+
+	/**
+	 * Finds the reviewers who rated both movies
+	 * @param a a movie
+	 * @param b another movie
+	 * @return the shared reviewers and their ratings of each movie
+	 */
+	public static SharedRatings between(Movie a, Movie b){
+		Movie.SortedRatings sortedA = a.getSortedRatings();
+		Movie.SortedRatings sortedB = b.getSortedRatings();
+		int[] idsA = sortedA.reviewers;
+		int[] idsB = sortedB.reviewers;
+		double[] ratingsA = sortedA.ratings;
+		double[] ratingsB = sortedB.ratings;
+		boolean swapped = idsA.length > idsB.length;
+		int[] small = swapped ? idsB : idsA;
+		int[] large = swapped ? idsA : idsB;
+
+		// positions of each shared reviewer in the small and large arrays
+		int[] inSmall = new int[small.length];
+		int[] inLarge = new int[small.length];
+		int count = 0;
+		if((long) small.length * GALLOP_RATIO < large.length){
+			int low = 0;
+			for(int i = 0; i < small.length && low < large.length; i++){
+				int j = gallop(large, low, small[i]);
+				if(j < large.length && large[j] == small[i]){
+					inSmall[count] = i;
+					inLarge[count++] = j;
+					j++;
+				}
+				low = j;
+			}
+		}
+		else{
+			int i = 0, j = 0;
+			while(i < small.length && j < large.length){
+				if(small[i] < large[j]){
+					i++;
+				}
+				else if(small[i] > large[j]){
+					j++;
+				}
+				else{
+					inSmall[count] = i++;
+					inLarge[count++] = j++;
+				}
+			}
+		}
+
+		int[] shared = new int[count];
+		double[] first = new double[count];
+		double[] second = new double[count];
+		double[] ratingsSmall = swapped ? ratingsB : ratingsA;
+		double[] ratingsLarge = swapped ? ratingsA : ratingsB;
+		for(int k = 0; k < count; k++){
+			shared[k] = small[inSmall[k]];
+			double s = ratingsSmall[inSmall[k]];
+			double l = ratingsLarge[inLarge[k]];
+			first[k] = swapped ? l : s;
+			second[k] = swapped ? s : l;
+		}
+		return new SharedRatings(shared, first, second);
+	}
+
+	/**
+	 * Finds the first position at or after low holding a value no smaller than key
+	 * @param sorted an array in increasing order
+	 * @param low the position to start from
+	 * @param key the value to find
+	 * @return the position, or sorted.length if every value from low on is smaller
+	 */
+	private static int gallop(int[] sorted, int low, int key){
+		int step = 1;
+		int high = low;
+		while(high < sorted.length && sorted[high] < key){
+			low = high + 1;
+			high += step;
+			step *= 2;
+		}
+		high = Math.min(high, sorted.length);
+		// the answer now lies in low...high
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(sorted[mid] < key){
+				low = mid + 1;
+			}
+			else{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the number of reviewers who rated both movies
+	 * @return the number of shared reviewers
+	 */
+	public int count(){
+		return reviewers.length;
+	}
+
+	/**
+	 * Returns the ids of the reviewers who rated both movies
+	 * @return the shared reviewer ids in increasing order
+	 */
+	public int[] reviewers(){
+		return reviewers.clone();
+	}
+
+	/**
+	 * Returns the average difference between the two ratings of each shared reviewer
+	 * @return the mean absolute difference, or 0 if there are no shared reviewers
+	 */
+	public double meanDifference(){
+		double total = 0;
+		for(int k = 0; k < reviewers.length; k++){
+			total += Math.abs(first[k] - second[k]);
+		}
+		return reviewers.length == 0 ? 0 : total / reviewers.length;
+	}
+
+	/**
+	 * Returns the share of the shared reviewers who rated the two movies within half a star
+	 * of each other
+	 * @return the fraction of reviewers who agree, or 0 if there are no shared reviewers
+	 */
+	public double agreement(){
+		int agree = 0;
+		for(int k = 0; k < reviewers.length; k++){
+			if(Math.abs(first[k] - second[k]) <= 0.5){
+				agree++;
+			}
+		}
+		return reviewers.length == 0 ? 0 : (double) agree / reviewers.length;
+	}
+
+	/**
+	 * Returns the shared reviewers, at most a given number of them, with their two ratings
+	 * @param limit the most reviewers to list
+	 * @return a line such as "12 (4.0/3.5), 40 (5.0/5.0), ..."
+	 */
+	public String describe(int limit){
+		StringBuilder str = new StringBuilder();
+		for(int k = 0; k < Math.min(limit, reviewers.length); k++){
+			if(k > 0){
+				str.append(", ");
+			}
+			str.append(reviewers[k]).append(" (").append(first[k]).append('/').append(second[k]).append(')');
+		}
+		if(reviewers.length > limit){
+			str.append(", ...");
+		}
+		return str.toString();
+	}
+}
@@ -0,0 +1,208 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Triangle counts and clustering coefficients of a graph, treating its edges as undirected.
+ *
+ * Every edge is oriented from the endpoint of lower degree to the one of higher degree (ties
+ * broken by vertex), which leaves each vertex at most O(sqrt(E)) out-edges. Every triangle is
+ * then found exactly once, at the edge u-v between its two lowest-ranked corners, by merging
+ * the sorted out-lists of u and v. Vertices are split over the common fork-join pool, each
+ * worker thread counting the triangles at every corner into its own array, and the arrays are
+ * summed once at the end.
+ *
+ * Vertices are the integers 1...n. Self loops are ignored.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class TriangleCount {
+
+    private final long[] triangles; // indexed by vertex-1; the triangles the vertex is a corner of
+    private final int[] degree;     // indexed by vertex-1; distinct neighbors other than the vertex
+    private final long total;
+
+    private TriangleCount(long[] triangles, int[] degree){
+        this.triangles = triangles;
+        this.degree = degree;
+        long corners = 0;
+        for (long t : triangles){
+            corners += t;
+        }
+        this.total = corners / 3;
+    }
+
+    /**
+     * Counts the triangles of a graph
+     * @param graph the graph; edge directions and weights are ignored
+     * @return the triangle counts
+     */
+    public static TriangleCount count(CompactGraph graph){
+        CompactGraph undirected = graph.symmetric();
+        int n = undirected.numVertices;
+        int[] offsets = undirected.offsets;
+        int[] targets = undirected.targets;
+
+        int[] degree = new int[n];
+        for (int v = 1; v <= n; v++){
+            degree[v-1] = offsets[v] - offsets[v-1];
+            for (int e = offsets[v-1]; e < offsets[v]; e++){
+                if (targets[e] == v){
+                    degree[v-1]--;
+                }
+            }
+        }
+
+        // keep only the edges from lower to higher rank; the lists stay sorted by vertex
+        int[] outOffsets = new int[n + 1];
+        for (int u = 1; u <= n; u++){
+            int kept = 0;
+            for (int e = offsets[u-1]; e < offsets[u]; e++){
+                if (before(degree, u, targets[e])){
+                    kept++;
+                }
+            }
+            outOffsets[u] = outOffsets[u-1] + kept;
+        }
+        int[] outTargets = new int[outOffsets[n]];
+        for (int u = 1; u <= n; u++){
+            int position = outOffsets[u-1];
+            for (int e = offsets[u-1]; e < offsets[u]; e++){
+                if (before(degree, u, targets[e])){
+                    outTargets[position++] = targets[e];
+                }
+            }
+        }
+
+        List<long[]> counts = Collections.synchronizedList(new ArrayList<>());
+        ThreadLocal<long[]> local = ThreadLocal.withInitial(() -> {
+            long[] corners = new long[n];
+            counts.add(corners);
+            return corners;
+        });
+        IntStream.rangeClosed(1, n).parallel().forEach(u -> {
+            long[] corners = local.get();
+            for (int e = outOffsets[u-1]; e < outOffsets[u]; e++){
+                int v = outTargets[e];
+                // merge the out-lists of u and v; every common vertex closes a triangle
+                int i = outOffsets[u-1];
+                int j = outOffsets[v-1];
+                while (i < outOffsets[u] && j < outOffsets[v]){
+                    int a = outTargets[i];
+                    int b = outTargets[j];
+                    if (a < b){
+                        i++;
+                    }
+                    else if (b < a){
+                        j++;
+                    }
+                    else{
+                        corners[u-1]++;
+                        corners[v-1]++;
+                        corners[a-1]++;
+                        i++;
+                        j++;
+                    }
+                }
+            }
+        });
+        long[] triangles = new long[n];
+        for (long[] corners : counts){
+            for (int v = 0; v < n; v++){
+                triangles[v] += corners[v];
+            }
+        }
+        return new TriangleCount(triangles, degree);
+    }
+
+    /**
+     * Checks whether u comes before v in the order by degree, then by vertex
+     */
+    private static boolean before(int[] degree, int u, int v){
+        return degree[u-1] < degree[v-1] || (degree[u-1] == degree[v-1] && u < v);
+    }
+
+    /**
+     * Returns the number of triangles in the graph
+     * @return the triangle count
+     */
+    public long total(){
+        return total;
+    }
+
+    /**
+     * Returns the number of triangles a vertex is a corner of
+     * @param v a vertex in the graph
+     * @return the triangle count of v
+     */
+    public long triangles(int v){
+        return triangles[v-1];
+    }
+
+    /**
+     * Returns the fraction of pairs of a vertex's neighbors that are adjacent
+     * @param v a vertex in the graph
+     * @return the local clustering coefficient, or 0 if v has fewer than two neighbors
+     */
+    public double localClustering(int v){
+        long d = degree[v-1];
+        return d < 2 ? 0 : 2.0 * triangles[v-1] / (d * (d - 1));
+    }
+
+    /**
+     * Returns the mean local clustering coefficient over all vertices
+     * @return the average clustering coefficient
+     */
+    public double averageClustering(){
+        double sum = 0;
+        for (int v = 1; v <= degree.length; v++){
+            sum += localClustering(v);
+        }
+        return degree.length == 0 ? 0 : sum / degree.length;
+    }
+
+    /**
+     * Returns the fraction of paths of length two that are closed into triangles (transitivity)
+     * @return the global clustering coefficient, or 0 if there are no such paths
+     */
+    public double globalClustering(){
+        long wedges = 0;
+        for (int d : degree){
+            wedges += (long) d * (d - 1) / 2;
+        }
+        return wedges == 0 ? 0 : 3.0 * total / wedges;
+    }
+
+    /**
+     * Times triangle counting on a random graph.
+     * Usage: java graph.TriangleCount [vertices] [average degree]
+     */
+    public static void main(String[] args){
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        Random random = new Random(361);
+        Graph<Integer> g = new Graph<>();
+        for (int v = 1; v <= n; v++){
+            g.addVertex(v);
+        }
+        for (int v = 1; v <= n; v++){
+            for (int i = 0; i < degree / 2; i++){
+                // mostly local edges so that there are triangles to find
+                int u = 1 + Math.floorMod(v + random.nextInt(200) - 100, n);
+                g.addEdge(v, u);
+                g.addEdge(u, v);
+            }
+        }
+        CompactGraph graph = new CompactGraph(g);
+
+        long start = System.nanoTime();
+        TriangleCount count = count(graph);
+        long time = System.nanoTime() - start;
+        System.out.printf("%d triangles over %d edges in %.0f ms%n", count.total(), graph.numEdges(), time / 1e6);
+        System.out.printf("Global clustering %.4f, average clustering %.4f%n", count.globalClustering(), count.averageClustering());
+    }
+}
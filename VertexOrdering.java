@@ -0,0 +1,364 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Relabels the vertices of a graph so that vertices used together sit close together in
+ * memory. DataLoader numbers movies in file order, which scatters the neighbors of a movie
+ * across the adjacency arrays; after relabeling, a traversal touches far fewer cache lines.
+ *
+ * An ordering holds the permuted graph together with the maps between original and new
+ * vertex numbers, so results computed on the permuted graph can be reported in the
+ * original movie ids. Vertices are the integers 1...n in both numberings.
+ *
+ * @authors Robert Weaver and Kyler Greenway
+ */
+public class VertexOrdering {
+
+    private final int[] newToOld; // newToOld[newId-1] = original id
+    private final int[] oldToNew; // oldToNew[oldId-1] = new id
+    private final CompactGraph permuted;
+
+    /**
+     * Builds the permuted graph for an ordering of the vertices
+     * @param graph the graph in original numbering
+     * @param order the original ids in their new order
+     */
+    private VertexOrdering(CompactGraph graph, int[] order){
+        int n = graph.numVertices;
+        this.newToOld = order;
+        this.oldToNew = new int[n];
+        for (int i = 0; i < n; i++){
+            oldToNew[order[i]-1] = i + 1;
+        }
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++){
+            int old = order[i];
+            offsets[i+1] = offsets[i] + graph.offsets[old] - graph.offsets[old-1];
+        }
+        int[] targets = new int[graph.targets.length];
+        int[] weights = graph.weights == null ? null : new int[targets.length];
+        for (int i = 0; i < n; i++){
+            int old = order[i];
+            int position = offsets[i];
+            for (int e = graph.offsets[old-1]; e < graph.offsets[old]; e++){
+                targets[position] = oldToNew[graph.targets[e]-1];
+                if (weights != null){
+                    weights[position] = graph.weights[e];
+                }
+                position++;
+            }
+        }
+        this.permuted = new CompactGraph(n, offsets, targets, weights);
+    }
+
+    /**
+     * Returns the graph in the new numbering
+     * @return the permuted graph
+     */
+    public CompactGraph graph(){
+        return permuted;
+    }
+
+    /**
+     * Maps an original vertex to its new number
+     * @param original a vertex in the original graph
+     * @return the vertex number in the permuted graph
+     */
+    public int toNew(int original){
+        return oldToNew[original-1];
+    }
+
+    /**
+     * Maps a vertex of the permuted graph back to its original number
+     * @param relabeled a vertex in the permuted graph
+     * @return the vertex number in the original graph
+     */
+    public int toOriginal(int relabeled){
+        return newToOld[relabeled-1];
+    }
+
+    /**
+     * Orders vertices by decreasing degree, so the hubs that most traversals pass through
+     * share the first few cache lines
+     * @param graph the graph to be relabeled
+     * @return the ordering
+     */
+    public static VertexOrdering degreeSorted(CompactGraph graph){
+        int n = graph.numVertices;
+        long[] keys = new long[n];
+        for (int v = 1; v <= n; v++){
+            int degree = graph.offsets[v] - graph.offsets[v-1];
+            keys[v-1] = ((long) (Integer.MAX_VALUE - degree) << 32) | v;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++){
+            order[i] = (int) keys[i];
+        }
+        return new VertexOrdering(graph, order);
+    }
+
+    /**
+     * Orders vertices by the reverse Cuthill-McKee algorithm: a breadth first search started
+     * from a low degree vertex of each component, visiting neighbors in increasing order of
+     * degree, with the final order reversed. Adjacent vertices end up with nearby numbers.
+     * @param graph the graph to be relabeled, treated as undirected
+     * @return the ordering
+     */
+    public static VertexOrdering reverseCuthillMcKee(CompactGraph graph){
+        int n = graph.numVertices;
+        CompactGraph undirected = graph.symmetric();
+        int[] degree = new int[n];
+        for (int v = 1; v <= n; v++){
+            degree[v-1] = undirected.offsets[v] - undirected.offsets[v-1];
+        }
+        // candidate start vertices in increasing order of degree
+        long[] byDegree = new long[n];
+        for (int v = 1; v <= n; v++){
+            byDegree[v-1] = ((long) degree[v-1] << 32) | v;
+        }
+        Arrays.sort(byDegree);
+
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        long[] scratch = new long[0];
+        int head = 0;
+        int tail = 0;
+        for (long key : byDegree){
+            int start = (int) key;
+            if (visited[start-1]){
+                continue;
+            }
+            visited[start-1] = true;
+            order[tail++] = start;
+            while (head < tail){
+                int u = order[head++];
+                int first = tail;
+                for (int e = undirected.offsets[u-1]; e < undirected.offsets[u]; e++){
+                    int v = undirected.targets[e];
+                    if (!visited[v-1]){
+                        visited[v-1] = true;
+                        order[tail++] = v;
+                    }
+                }
+                // sort the newly discovered vertices by degree
+                int count = tail - first;
+                if (count > 1){
+                    if (scratch.length < count){
+                        scratch = new long[count];
+                    }
+                    for (int i = 0; i < count; i++){
+                        int v = order[first + i];
+                        scratch[i] = ((long) degree[v-1] << 32) | v;
+                    }
+                    Arrays.sort(scratch, 0, count);
+                    for (int i = 0; i < count; i++){
+                        order[first + i] = (int) scratch[i];
+                    }
+                }
+            }
+        }
+        for (int i = 0, j = n - 1; i < j; i++, j--){
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+        }
+        return new VertexOrdering(graph, order);
+    }
+
+    /**
+     * Orders vertices in the style of Rabbit Order: vertices are visited in increasing order
+     * of degree and each is merged into the neighboring community that most increases
+     * modularity, building a forest of merges. A depth first walk of the forest then numbers
+     * every community contiguously, with nested communities nested inside it.
+     *
+     * This is the sequential form of the algorithm; each vertex is merged at most once.
+     * @param graph the graph to be relabeled, treated as undirected
+     * @return the ordering
+     */
+    public static VertexOrdering rabbitOrder(CompactGraph graph){
+        int n = graph.numVertices;
+        CompactGraph undirected = graph.symmetric();
+        double totalWeight = Math.max(1, undirected.targets.length); // 2m for an undirected graph
+
+        long[] byDegree = new long[n];
+        double[] communityDegree = new double[n];
+        for (int v = 1; v <= n; v++){
+            int degree = undirected.offsets[v] - undirected.offsets[v-1];
+            communityDegree[v-1] = degree;
+            byDegree[v-1] = ((long) degree << 32) | v;
+        }
+        Arrays.sort(byDegree);
+
+        int[] root = new int[n];        // union-find over communities
+        int[] firstChild = new int[n];  // merge forest, as child / sibling lists
+        int[] nextSibling = new int[n];
+        int[] lastChild = new int[n];
+        for (int i = 0; i < n; i++){
+            root[i] = i;
+            firstChild[i] = -1;
+            nextSibling[i] = -1;
+            lastChild[i] = -1;
+        }
+        boolean[] merged = new boolean[n];
+        double[] linkWeight = new double[n];
+        int[] touched = new int[n];
+
+        for (long key : byDegree){
+            int v = (int) key - 1;
+            // total the edge weight from v to each neighboring community
+            int numTouched = 0;
+            for (int e = undirected.offsets[v]; e < undirected.offsets[v+1]; e++){
+                int c = find(root, undirected.targets[e] - 1);
+                if (c == v){
+                    continue;
+                }
+                if (linkWeight[c] == 0){
+                    touched[numTouched++] = c;
+                }
+                linkWeight[c] += 1;
+            }
+            int best = -1;
+            double bestGain = 0;
+            for (int i = 0; i < numTouched; i++){
+                int c = touched[i];
+                double gain = 2 * (linkWeight[c] / totalWeight
+                        - communityDegree[v] * communityDegree[c] / (totalWeight * totalWeight));
+                if (gain > bestGain){
+                    bestGain = gain;
+                    best = c;
+                }
+                linkWeight[c] = 0;
+            }
+            if (best != -1){
+                // v's community becomes the newest child of the best community
+                root[v] = best;
+                merged[v] = true;
+                communityDegree[best] += communityDegree[v];
+                if (firstChild[best] == -1){
+                    firstChild[best] = v;
+                }
+                else{
+                    nextSibling[lastChild[best]] = v;
+                }
+                lastChild[best] = v;
+            }
+        }
+
+        // number each tree depth first, children after their parent
+        int[] order = new int[n];
+        int[] stack = new int[n];
+        int count = 0;
+        for (int r = 0; r < n; r++){
+            if (merged[r]){
+                continue;
+            }
+            int top = 0;
+            stack[top++] = r;
+            while (top > 0){
+                int c = stack[--top];
+                order[count++] = c + 1;
+                // push children in reverse so the first merged is numbered first
+                int children = 0;
+                for (int child = firstChild[c]; child != -1; child = nextSibling[child]){
+                    stack[top + children++] = child;
+                }
+                for (int i = 0, j = children - 1; i < j; i++, j--){
+                    int temp = stack[top + i];
+                    stack[top + i] = stack[top + j];
+                    stack[top + j] = temp;
+                }
+                top += children;
+            }
+        }
+        return new VertexOrdering(graph, order);
+    }
+
+    private static int find(int[] root, int c){
+        while (root[c] != c){
+            root[c] = root[root[c]];
+            c = root[c];
+        }
+        return c;
+    }
+
+    /**
+     * Compares the time of a breadth first search, PageRank and all pairs statistics over a
+     * randomly numbered graph before and after each ordering. The all pairs statistics run on
+     * a graph a fiftieth the size, batching the sources in each numbering as it is.
+     * Usage: java graph.VertexOrdering [vertices] [average degree]
+     */
+    public static void main(String[] args){
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        Random random = new Random(361);
+
+        CompactGraph original = shuffledClusters(n, degree, random);
+        time("file order", original);
+        time("degree sorted", degreeSorted(original).graph());
+        time("reverse Cuthill-McKee", reverseCuthillMcKee(original).graph());
+        time("rabbit order", rabbitOrder(original).graph());
+
+        CompactGraph small = shuffledClusters(Math.max(1, n / 50), degree, random);
+        timeAllPairs("file order", small);
+        timeAllPairs("degree sorted", degreeSorted(small).graph());
+        timeAllPairs("reverse Cuthill-McKee", reverseCuthillMcKee(small).graph());
+        timeAllPairs("rabbit order", rabbitOrder(small).graph());
+    }
+
+    /**
+     * Builds a clustered graph whose vertex numbers are shuffled, like movies in file order
+     */
+    private static CompactGraph shuffledClusters(int n, int degree, Random random){
+        int[] label = new int[n];
+        for (int i = 0; i < n; i++){
+            label[i] = i + 1;
+        }
+        for (int i = n - 1; i > 0; i--){
+            int j = random.nextInt(i + 1);
+            int temp = label[i];
+            label[i] = label[j];
+            label[j] = temp;
+        }
+        Graph<Integer> g = new Graph<>();
+        for (int v = 1; v <= n; v++){
+            g.addVertex(v);
+        }
+        for (int v = 0; v < n; v++){
+            for (int i = 0; i < degree / 2; i++){
+                int u = Math.floorMod(v + (int) (random.nextGaussian() * degree), n);
+                if (u != v){
+                    g.addEdge(label[v], label[u]);
+                    g.addEdge(label[u], label[v]);
+                }
+            }
+        }
+        return new CompactGraph(g);
+    }
+
+    private static void time(String name, CompactGraph graph){
+        long bfs = Long.MAX_VALUE;
+        long pageRank = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++){
+            long start = System.nanoTime();
+            GraphAlgorithms.breadthFirstSearch(graph, 1);
+            bfs = Math.min(bfs, System.nanoTime() - start);
+            start = System.nanoTime();
+            PowerIteration.pageRank(graph, PowerIteration.DAMPING, 0, 20);
+            pageRank = Math.min(pageRank, System.nanoTime() - start);
+        }
+        System.out.printf("%-22s BFS %.2f ms, 20 PageRank iterations %.2f ms%n", name, bfs / 1e6, pageRank / 1e6);
+    }
+
+    private static void timeAllPairs(String name, CompactGraph graph){
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++){
+            long start = System.nanoTime();
+            MultiSourceBfs.summarize(graph, null);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-22s all pairs statistics over %d vertices %.2f ms%n", name, graph.numVertices, best / 1e6);
+    }
+}